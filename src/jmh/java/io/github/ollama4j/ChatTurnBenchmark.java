@@ -0,0 +1,68 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs complete chat turns through {@link Ollama4jUI.OllamaStreamingChat} against a {@link StubOllamaServer} that
+ * streams {@code tokens} tokens at {@code tokensPerSecond} (0 means as fast as possible). With an unthrottled stub the
+ * result is the client-side overhead of a turn; with a throttled one it shows how closely the client keeps up with the
+ * server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChatTurnBenchmark {
+    @Param({ "256" })
+    public int tokens;
+
+    @Param({ "0", "200" })
+    public int tokensPerSecond;
+
+    private StubOllamaServer server;
+    private OllamaAPI ollamaAPI;
+    private Ollama4jUI.OllamaStreamingChat chat;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new StubOllamaServer(tokens, tokensPerSecond);
+        ollamaAPI = new OllamaAPI(server.getHost());
+        ollamaAPI.setRequestTimeoutSeconds(60);
+        chat = new Ollama4jUI.OllamaStreamingChat();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<OllamaChatMessage> chatTurn(Blackhole blackhole) throws Exception {
+        StreamingTextRenderer renderer = new StreamingTextRenderer(blackhole::consume, 40, 8192);
+        List<OllamaChatMessage> history = chat.send("Tell me a story.", new ArrayList<>(), ollamaAPI,
+                StubOllamaServer.MODEL, new Ollama4jUI.CustomStreamHandler(renderer), false);
+        SwingUtilities.invokeAndWait(renderer::flush);
+        return history;
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the chat export of a history of {@code historySize} messages in each export format. Output goes to a null writer so the disk
+ * does not take part in the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmark {
+    @Param({ "10", "1000", "10000" })
+    public int historySize;
+
+    @Param({ "TEXT", "MARKDOWN", "JSONL" })
+    public ChatExporter.Format format;
+
+    private List<OllamaChatMessage> history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            history.add(new OllamaChatMessage(i % 2 == 0 ? OllamaChatMessageRole.USER : OllamaChatMessageRole.ASSISTANT,
+                    StubOllamaServer.responseText(20 + i % 200)));
+        }
+    }
+
+    @Benchmark
+    public void exportTranscript() throws IOException {
+        try (Writer writer = new BufferedWriter(Writer.nullWriter())) {
+            ChatExporter.MessageWriter messageWriter = new ChatExporter.MessageWriter(writer, format);
+            for (OllamaChatMessage message : history) {
+                messageWriter.write(message.getRole(), message.getContent(), -1);
+            }
+        }
+    }
+}
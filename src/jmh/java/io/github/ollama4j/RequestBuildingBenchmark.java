@@ -0,0 +1,75 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link Ollama4jUI.OllamaStreamingChat} does before a request goes out: selecting the context window
+ * from a history of {@code historySize} messages and building the chat request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildingBenchmark {
+    private static final String PROMPT = "What is the weather like in Bengaluru today?";
+
+    @Param({ "10", "100", "1000" })
+    public int historySize;
+
+    private List<OllamaChatMessage> history;
+    private ContextWindowManager contextWindowManager;
+    private ContextWindowManager.ContextWindow window;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new ArrayList<>();
+        history.add(new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, "You are a helpful assistant."));
+        for (int i = 1; i < historySize; i++) {
+            history.add(new OllamaChatMessage(i % 2 == 1 ? OllamaChatMessageRole.USER : OllamaChatMessageRole.ASSISTANT,
+                    i + " " + StubOllamaServer.responseText(20 + i % 50)));
+        }
+        contextWindowManager = new ContextWindowManager(4096);
+        window = contextWindowManager.select(history, PROMPT);
+    }
+
+    /**
+     * Window selection with every message's token estimate already cached, as in a running chat.
+     */
+    @Benchmark
+    public ContextWindowManager.ContextWindow selectWindow() {
+        return contextWindowManager.select(history, PROMPT);
+    }
+
+    /**
+     * Window selection right after a history is loaded, when every message has to be scanned.
+     */
+    @Benchmark
+    public ContextWindowManager.ContextWindow selectWindowUncached() {
+        return new ContextWindowManager(4096).select(history, PROMPT);
+    }
+
+    @Benchmark
+    public OllamaChatRequest buildRequest() {
+        return Ollama4jUI.OllamaStreamingChat.buildRequest(StubOllamaServer.MODEL, window, PROMPT);
+    }
+}
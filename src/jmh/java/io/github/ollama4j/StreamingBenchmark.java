@@ -0,0 +1,87 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams a canned response through {@link Ollama4jUI.CustomStreamHandler} and {@link StreamingTextRenderer} into a
+ * {@link ChatTranscriptView} that already holds {@code transcriptMessages} messages. Each operation is one response of
+ * {@code chunks} cumulative chunks, including the final flush on the EDT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StreamingBenchmark {
+    @Param({ "10", "1000", "10000" })
+    public int transcriptMessages;
+
+    @Param({ "256" })
+    public int chunks;
+
+    @Param({ "0", "40" })
+    public int flushIntervalMillis;
+
+    private String[] cumulativeChunks;
+    private List<OllamaChatMessage> transcript;
+    private ChatTranscriptView view;
+    private StreamingTextRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // the handler receives the whole response so far with every chunk, as the Ollama client streams it
+        String response = StubOllamaServer.responseText(chunks);
+        cumulativeChunks = new String[chunks];
+        for (int i = 0; i < chunks; i++) {
+            cumulativeChunks[i] = response.substring(0, (int) ((long) response.length() * (i + 1) / chunks));
+        }
+        transcript = new ArrayList<>();
+        String text = StubOllamaServer.responseText(40);
+        for (int i = 0; i < transcriptMessages; i++) {
+            transcript.add(new OllamaChatMessage(
+                    i % 2 == 0 ? OllamaChatMessageRole.USER : OllamaChatMessageRole.ASSISTANT, i + ": " + text));
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            view = new ChatTranscriptView();
+            view.setSize(600, 400);
+            renderer = new StreamingTextRenderer(view::appendToLastEntry, flushIntervalMillis, 8192);
+        });
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTranscript() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            view.setMessages(transcript);
+            view.addEntry("AI", "");
+        });
+    }
+
+    @Benchmark
+    public ChatTranscriptView streamResponse() throws Exception {
+        Ollama4jUI.CustomStreamHandler handler = new Ollama4jUI.CustomStreamHandler(renderer);
+        for (String chunk : cumulativeChunks) {
+            handler.accept(chunk);
+        }
+        SwingUtilities.invokeAndWait(renderer::flush);
+        return view;
+    }
+}
@@ -0,0 +1,271 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs prompts from a JSON lines file (or stdin) through the chat without a GUI.
+ * <p>
+ * Every input line is a JSON object with a {@code prompt} and optionally an {@code id} and a {@code model}; lines that
+ * are not JSON are used as the prompt as they are. Prompts are sent with {@code parallelism} requests in flight. The
+ * input is only read ahead as far as the next {@code parallelism} prompts, so a large input never piles up in memory.
+ * Every result is written as a JSON line as soon as it completes, and a throughput summary is printed at the end.
+ * A line that cannot be parsed gets an error result with its line number, so every input line has a result.
+ */
+class BatchRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+    static final String USAGE = "Usage: java -jar ollama4j-ui.jar --batch [--input <file.jsonl>|-] "
+            + "[--output <file.jsonl>|-] [--model <model>] [--parallelism <n>] [--tools]";
+
+    private final OllamaAPI ollamaAPI;
+    private final Ollama4jUI.OllamaStreamingChat chat;
+    private final ContextWindowManager tokenCounter;
+    private final Options options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static class Options {
+        private String input = "-";
+        private String output = "-";
+        private String model;
+        private int parallelism;
+        private boolean useTools = false;
+
+        /**
+         * Parses the arguments following {@code --batch}.
+         *
+         * @throws IllegalArgumentException if an argument is unknown or incomplete
+         */
+        static Options parse(String[] args, String defaultModel, int defaultParallelism) {
+            Options options = new Options();
+            options.model = defaultModel;
+            options.parallelism = defaultParallelism;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--tools")) {
+                    options.useTools = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--input":
+                        options.input = value;
+                        break;
+                    case "--output":
+                        options.output = value;
+                        break;
+                    case "--model":
+                        options.model = value;
+                        break;
+                    case "--parallelism":
+                        try {
+                            options.parallelism = Integer.parseInt(value);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Invalid parallelism: " + value);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            options.parallelism = Math.max(1, options.parallelism);
+            return options;
+        }
+    }
+
+    BatchRunner(OllamaAPI ollamaAPI, Ollama4jUI.OllamaStreamingChat chat, ContextWindowManager tokenCounter,
+            Options options) {
+        this.ollamaAPI = ollamaAPI;
+        this.chat = chat;
+        this.tokenCounter = tokenCounter;
+        this.options = options;
+    }
+
+    /**
+     * Runs the batch and prints the summary to {@code summaryOut}.
+     *
+     * @return the number of prompts that failed
+     */
+    public int run(PrintStream summaryOut) throws IOException, InterruptedException {
+        int parallelism = options.parallelism;
+        ChatRequestScheduler scheduler = new ChatRequestScheduler("ollama4j-batch", parallelism, 2 * parallelism);
+        // one permit per prompt that has been read but not written yet
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        ChatMetrics metrics = new ChatMetrics(Integer.MAX_VALUE);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        int submitted = 0;
+        long startNanos = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openInput(), StandardCharsets.UTF_8));
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(openOutput(),
+                        StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> record = new LinkedHashMap<>();
+                String prompt;
+                String model;
+                try {
+                    JsonNode node = line.trim().startsWith("{") ? objectMapper.readTree(line) : null;
+                    record.put("id", node != null && node.hasNonNull("id") ? node.get("id").asText()
+                            : String.valueOf(lineNumber));
+                    prompt = node != null ? node.path("prompt").asText("") : line.trim();
+                    model = node != null && node.hasNonNull("model") ? node.get("model").asText() : options.model;
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable input line {}: {}", lineNumber, e.getMessage());
+                    // still write a result, so the output lines up with the input
+                    Map<String, Object> error = new LinkedHashMap<>();
+                    error.put("id", String.valueOf(lineNumber));
+                    error.put("line", lineNumber);
+                    error.put("error", "Unreadable input: " + e.getMessage());
+                    write(writer, error);
+                    failed.incrementAndGet();
+                    continue;
+                }
+                record.put("model", model);
+                record.put("prompt", prompt);
+                if (prompt.isEmpty() || model == null) {
+                    record.put("error", prompt.isEmpty() ? "No prompt" : "No model given");
+                    write(writer, record);
+                    failed.incrementAndGet();
+                    continue;
+                }
+
+                inFlight.acquire();
+                submitted++;
+                // started when the request leaves the queue, so waiting for a free slot is not measured
+                AtomicReference<ChatMetrics.Turn> turn = new AtomicReference<>();
+                ChatRequestScheduler.ChatRequest<List<OllamaChatMessage>> request = scheduler.submit(
+                        streamHandler -> {
+                            turn.set(metrics.startTurn(model));
+                            return chat.send(prompt, new ArrayList<>(), ollamaAPI, model, streamHandler,
+                                    options.useTools, turn.get());
+                        },
+                        chunk -> turn.get().chunkReceived());
+                request.result().whenComplete((history, error) -> {
+                    try {
+                        ChatMetrics.Turn finishedTurn = turn.get();
+                        if (error == null) {
+                            String response = history.isEmpty() ? "" : history.get(history.size() - 1).getContent();
+                            ChatMetrics.TurnMetrics turnMetrics = finishedTurn.finish(
+                                    tokenCounter.estimateTokens(response), false);
+                            record.put("response", response);
+                            record.put("firstChunkMillis", turnMetrics.getFirstChunkMillis());
+                            record.put("totalMillis", turnMetrics.getTotalMillis());
+                            record.put("tokens", turnMetrics.getTokens());
+                        } else {
+                            if (finishedTurn != null) {
+                                finishedTurn.finish(0, true);
+                            }
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause()
+                                    : error;
+                            record.put("error", cause instanceof CancellationException ? "Cancelled"
+                                    : String.valueOf(cause.getMessage()));
+                            failed.incrementAndGet();
+                        }
+                        write(writer, record);
+                    } finally {
+                        completed.incrementAndGet();
+                        inFlight.release();
+                    }
+                });
+            }
+            // wait for the prompts still in flight
+            inFlight.acquire(2 * parallelism);
+            inFlight.release(2 * parallelism);
+        } finally {
+            scheduler.shutdown();
+        }
+
+        printSummary(summaryOut, metrics, submitted, completed.get(), failed.get(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return failed.get();
+    }
+
+    private void write(BufferedWriter writer, Map<String, Object> record) {
+        try {
+            String json = objectMapper.writeValueAsString(record);
+            synchronized (writer) {
+                writer.write(json);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException e) {
+            logger.error("Could not write result {}: {}", record.get("id"), e.getMessage());
+        }
+    }
+
+    private InputStream openInput() throws IOException {
+        return options.input.equals("-") ? System.in : new FileInputStream(options.input);
+    }
+
+    private OutputStream openOutput() throws IOException {
+        if (options.output.equals("-")) {
+            // keep stdout open after the writer is closed
+            return new FilterOutputStream(System.out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return new FileOutputStream(options.output);
+    }
+
+    private static void printSummary(PrintStream out, ChatMetrics metrics, int submitted, int completed, int failed,
+            long elapsedMillis) {
+        long tokens = 0;
+        for (ChatMetrics.TurnMetrics turn : metrics.getTurns()) {
+            tokens += turn.getTokens();
+        }
+        double seconds = Math.max(1, elapsedMillis) / 1000.0;
+        out.println("Batch finished in " + String.format("%.1f", seconds) + " s");
+        out.println("  prompts:     " + submitted + " sent, " + completed + " completed, " + failed + " failed");
+        out.println("  throughput:  " + String.format("%.2f prompts/s, ~%.1f tokens/s", completed / seconds,
+                tokens / seconds));
+        for (ChatMetrics.Metric metric : new ChatMetrics.Metric[] { ChatMetrics.Metric.FIRST_CHUNK,
+                ChatMetrics.Metric.TOTAL, ChatMetrics.Metric.TOKENS_PER_SECOND }) {
+            out.println("  " + metric.getLabel() + ": " + String.format("p50 %.1f, p90 %.1f, p99 %.1f",
+                    metrics.percentile(metric, 50), metrics.percentile(metric, 90),
+                    metrics.percentile(metric, 99)));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports chats as plain text, Markdown or JSON lines, optionally gzip-compressed.
+ * <p>
+ * Messages are written one at a time straight from the message list, or from the session files of the
+ * {@link ConversationStore} for a bulk export, so an export takes constant memory no matter how large it is. Exports
+ * run on a background thread, report their progress on the EDT and can be cancelled. The file is written under a
+ * temporary name and only moved into place once it is complete.
+ */
+class ChatExporter {
+    private static final Logger logger = LoggerFactory.getLogger(ChatExporter.class);
+    // progress is reported at most once per this many messages
+    private static final int PROGRESS_INTERVAL = 200;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    enum Format {
+        TEXT("Plain Text", ".txt"),
+        MARKDOWN("Markdown", ".md"),
+        JSONL("JSON Lines", ".jsonl");
+
+        private final String label;
+        private final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    interface ProgressListener {
+        /**
+         * Called on the EDT as the export progresses.
+         */
+        void progress(int done, int total);
+    }
+
+    /**
+     * A running export.
+     */
+    static class Export {
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private volatile boolean cancelled = false;
+
+        /**
+         * Completes with the number of exported messages.
+         */
+        public CompletableFuture<Integer> result() {
+            return result;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException("Export cancelled");
+            }
+        }
+    }
+
+    /**
+     * Writes messages in one of the export formats.
+     */
+    static class MessageWriter {
+        private final Writer writer;
+        private final Format format;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        private ConversationStore.SessionInfo session = null;
+
+        MessageWriter(Writer writer, Format format) {
+            this.writer = writer;
+            this.format = format;
+        }
+
+        /**
+         * Starts a new session in a bulk export. The following messages belong to it.
+         */
+        public void beginSession(ConversationStore.SessionInfo session) throws IOException {
+            this.session = session;
+            String created = dateFormat.format(new Date(session.getCreatedAtMillis()));
+            switch (format) {
+                case MARKDOWN:
+                    writer.write("## " + session.getTitle() + "\n\n_" + session.getModel() + ", " + created
+                            + "_\n\n");
+                    break;
+                case TEXT:
+                    writer.write("====== " + session.getTitle() + " [" + session.getModel() + "] " + created
+                            + " ======\n");
+                    break;
+                default:
+                    // every JSON line carries the session fields
+            }
+        }
+
+        /**
+         * @param timestampMillis when the message was recorded, or -1 if unknown
+         */
+        public void write(OllamaChatMessageRole role, String content, long timestampMillis) throws IOException {
+            String label = ChatTranscriptView.labelFor(role);
+            switch (format) {
+                case MARKDOWN:
+                    writer.write("### " + label);
+                    if (timestampMillis >= 0) {
+                        writer.write(" (" + dateFormat.format(new Date(timestampMillis)) + ")");
+                    }
+                    writer.write("\n\n");
+                    writer.write(content);
+                    writer.write("\n\n");
+                    break;
+                case JSONL:
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    if (session != null) {
+                        record.put("session", session.getId());
+                        record.put("model", session.getModel());
+                    }
+                    record.put("role", role.getRoleName());
+                    record.put("content", content);
+                    if (timestampMillis >= 0) {
+                        record.put("timestamp", timestampMillis);
+                    }
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.write('\n');
+                    break;
+                default:
+                    writer.write(label + ": ");
+                    writer.write(content);
+                    writer.write("\n------\n");
+            }
+        }
+    }
+
+    /**
+     * Exports the given messages in the background. They carry no timestamps, so a chat that is journaled in the
+     * {@link ConversationStore} is better exported with {@link #exportSessions}.
+     */
+    public Export export(List<OllamaChatMessage> messages, File file, Format format, boolean gzip,
+            ProgressListener listener) {
+        List<OllamaChatMessage> snapshot = new ArrayList<>(messages);
+        return run(file, format, gzip, (messageWriter, export) -> {
+            int done = 0;
+            for (OllamaChatMessage message : snapshot) {
+                export.checkCancelled();
+                messageWriter.write(message.getRole(), message.getContent(), -1);
+                done++;
+                if (done % PROGRESS_INTERVAL == 0) {
+                    reportProgress(listener, done, snapshot.size());
+                }
+            }
+            reportProgress(listener, done, snapshot.size());
+            return done;
+        });
+    }
+
+    /**
+     * Exports the given stored sessions into one file in the background, reading each session as it is written.
+     * Progress is reported in sessions.
+     */
+    public Export exportSessions(ConversationStore store, List<ConversationStore.SessionInfo> sessions, File file,
+            Format format, boolean gzip, ProgressListener listener) {
+        return run(file, format, gzip, (messageWriter, export) -> {
+            int[] count = { 0 };
+            for (int i = 0; i < sessions.size(); i++) {
+                export.checkCancelled();
+                messageWriter.beginSession(sessions.get(i));
+                store.readMessages(sessions.get(i), (role, content, timestampMillis) -> {
+                    export.checkCancelled();
+                    messageWriter.write(role, content, timestampMillis);
+                    count[0]++;
+                });
+                reportProgress(listener, i + 1, sessions.size());
+            }
+            return count[0];
+        });
+    }
+
+    @FunctionalInterface
+    private interface ExportTask {
+        int write(MessageWriter messageWriter, Export export) throws IOException;
+    }
+
+    private Export run(File file, Format format, boolean gzip, ExportTask task) {
+        Export export = new Export();
+        executor.execute(() -> {
+            File tempFile = null;
+            Throwable error = null;
+            int count = 0;
+            try {
+                File parent = file.getAbsoluteFile().getParentFile();
+                tempFile = File.createTempFile("ollama4j-export", ".tmp", parent);
+                try (OutputStream out = open(tempFile, gzip);
+                        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                    count = task.write(new MessageWriter(writer, format), export);
+                }
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Exported {} messages to {}", count, file);
+            } catch (CancellationException e) {
+                error = e;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Export to {} failed: {}", file, e.getMessage());
+                error = e;
+            }
+            if (error != null && tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile.toPath());
+                } catch (IOException e) {
+                    logger.warn("Could not delete {}: {}", tempFile, e.getMessage());
+                }
+            }
+            if (error != null) {
+                export.result.completeExceptionally(error);
+            } else {
+                export.result.complete(count);
+            }
+        });
+        return export;
+    }
+
+    private static OutputStream open(File file, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        return gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+    }
+
+    private static void reportProgress(ProgressListener listener, int done, int total) {
+        SwingUtilities.invokeLater(() -> listener.progress(done, total));
+    }
+}
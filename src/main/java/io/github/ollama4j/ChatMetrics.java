@@ -0,0 +1,370 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.swing.*;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Collects latency and throughput measurements of chat turns.
+ * <p>
+ * A {@link Turn} is started for every chat turn and records the stream timings in plain fields, so measuring a chunk
+ * costs one {@link System#nanoTime()} call and no allocation. When the turn finishes its {@link TurnMetrics} are
+ * committed as a {@link ChatTurnEvent} for JFR and kept in memory for the last {@code capacity} turns, from which the
+ * rolling percentiles are computed on demand.
+ */
+class ChatMetrics {
+    private final int capacity;
+    private final ArrayDeque<TurnMetrics> turns;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The measured quantities, in the order they are shown and exported.
+     */
+    enum Metric {
+        FIRST_CHUNK("Time to First Chunk (ms)", TurnMetrics::getFirstChunkMillis),
+        TOTAL("Total (ms)", TurnMetrics::getTotalMillis),
+        MEAN_GAP("Mean Inter-Chunk Gap (ms)", TurnMetrics::getMeanGapMillis),
+        MAX_GAP("Max Inter-Chunk Gap (ms)", TurnMetrics::getMaxGapMillis),
+        TOKENS_PER_SECOND("Tokens/s", TurnMetrics::getTokensPerSecond),
+        TOOL("Tool Round Trip (ms)", TurnMetrics::getToolMillis),
+        RENDER_LAG("Max Render Lag (ms)", TurnMetrics::getMaxRenderLagMillis);
+
+        private final String label;
+        private final ToDoubleFunction<TurnMetrics> value;
+
+        Metric(String label, ToDoubleFunction<TurnMetrics> value) {
+            this.label = label;
+            this.value = value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public double valueOf(TurnMetrics turn) {
+            return value.applyAsDouble(turn);
+        }
+    }
+
+    ChatMetrics(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.turns = new ArrayDeque<>(Math.min(this.capacity, 1024));
+    }
+
+    /**
+     * Starts measuring a chat turn. The returned turn is meant to be fed by a single stream thread, except for
+     * {@link Turn#renderLag(long)}, which may be called from the EDT.
+     */
+    public Turn startTurn(String model) {
+        return new Turn(model);
+    }
+
+    /**
+     * Registers a listener that is called on the EDT whenever a turn is recorded or the metrics are reset.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized List<TurnMetrics> getTurns() {
+        return new ArrayList<>(turns);
+    }
+
+    public synchronized void reset() {
+        turns.clear();
+        notifyListeners();
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100) over the retained turns, or {@code NaN} if none were
+     * recorded. Turns that did not produce the metric (e.g. no tool call) are skipped.
+     */
+    public double percentile(Metric metric, double percentile) {
+        double[] values = values(metric);
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+        return values[Math.max(0, Math.min(values.length - 1, rank))];
+    }
+
+    private double[] values(Metric metric) {
+        List<TurnMetrics> snapshot = getTurns();
+        double[] values = new double[snapshot.size()];
+        int count = 0;
+        for (TurnMetrics turn : snapshot) {
+            double value = metric.valueOf(turn);
+            if (value >= 0 && !turn.isFailed()) {
+                values[count++] = value;
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private void record(TurnMetrics metrics) {
+        synchronized (this) {
+            if (turns.size() == capacity) {
+                turns.removeFirst();
+            }
+            turns.addLast(metrics);
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> listeners.forEach(Runnable::run));
+    }
+
+    /**
+     * Writes the retained turns as CSV, or as JSON lines when the file name ends with {@code .jsonl}.
+     */
+    public void export(File file) throws IOException {
+        boolean jsonLines = file.getName().toLowerCase().endsWith(".jsonl");
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!jsonLines) {
+                writer.write("timestamp,model,path,failed,chunks,tokens");
+                for (Metric metric : Metric.values()) {
+                    writer.write(',');
+                    writer.write(metric.name().toLowerCase());
+                }
+                writer.newLine();
+            }
+            for (TurnMetrics turn : getTurns()) {
+                if (jsonLines) {
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("timestamp", turn.getTimestampMillis());
+                    record.put("model", turn.getModel());
+                    record.put("path", turn.getPath());
+                    record.put("failed", turn.isFailed());
+                    record.put("chunks", turn.getChunks());
+                    record.put("tokens", turn.getTokens());
+                    for (Metric metric : Metric.values()) {
+                        record.put(metric.name().toLowerCase(), metric.valueOf(turn));
+                    }
+                    writer.write(objectMapper.writeValueAsString(record));
+                } else {
+                    writer.write(turn.getTimestampMillis() + "," + csv(turn.getModel()) + "," + csv(turn.getPath())
+                            + "," + turn.isFailed() + "," + turn.getChunks() + "," + turn.getTokens());
+                    for (Metric metric : Metric.values()) {
+                        writer.write(',');
+                        writer.write(String.valueOf(metric.valueOf(turn)));
+                    }
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Measurements of a turn in progress.
+     */
+    class Turn {
+        private final String model;
+        private final long startNanos = System.nanoTime();
+        private final ChatTurnEvent event = new ChatTurnEvent();
+        private long firstChunkNanos = -1;
+        private long lastChunkNanos = -1;
+        private long maxGapNanos = 0;
+        private int chunks = 0;
+        private volatile long toolNanos = -1;
+        private volatile long maxRenderLagNanos = -1;
+        private volatile String path = null;
+        private boolean finished = false;
+
+        private Turn(String model) {
+            this.model = model;
+            event.begin();
+        }
+
+        /**
+         * Called for every streamed chunk, on the stream thread.
+         */
+        public void chunkReceived() {
+            long now = System.nanoTime();
+            if (firstChunkNanos < 0) {
+                firstChunkNanos = now;
+            } else {
+                maxGapNanos = Math.max(maxGapNanos, now - lastChunkNanos);
+            }
+            lastChunkNanos = now;
+            chunks++;
+        }
+
+        public void toolTime(long nanos) {
+            toolNanos = nanos;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Called with the delay between streamed text arriving and it being rendered.
+         */
+        public void renderLag(long nanos) {
+            if (nanos > maxRenderLagNanos) {
+                maxRenderLagNanos = nanos;
+            }
+        }
+
+        /**
+         * Records the turn. Only the first call has an effect.
+         *
+         * @param tokens estimated tokens of the response
+         */
+        public synchronized TurnMetrics finish(int tokens, boolean failed) {
+            if (finished) {
+                return null;
+            }
+            finished = true;
+            long endNanos = System.nanoTime();
+            long generationNanos = lastChunkNanos - firstChunkNanos;
+            TurnMetrics metrics = new TurnMetrics(System.currentTimeMillis(), model, path, failed, chunks, tokens,
+                    firstChunkNanos < 0 ? -1 : millis(firstChunkNanos - startNanos),
+                    millis(endNanos - startNanos),
+                    chunks > 1 ? generationNanos / 1_000_000.0 / (chunks - 1) : -1,
+                    chunks > 1 ? millis(maxGapNanos) : -1,
+                    generationNanos > 0 ? tokens * 1_000_000_000.0 / generationNanos : -1,
+                    toolNanos < 0 ? -1 : millis(toolNanos),
+                    maxRenderLagNanos < 0 ? -1 : millis(maxRenderLagNanos));
+            event.end();
+            if (event.shouldCommit()) {
+                event.model = model;
+                event.path = path;
+                event.firstChunkMillis = metrics.getFirstChunkMillis();
+                event.chunks = chunks;
+                event.meanGapMillis = (long) metrics.getMeanGapMillis();
+                event.maxGapMillis = metrics.getMaxGapMillis();
+                event.tokens = tokens;
+                event.tokensPerSecond = metrics.getTokensPerSecond();
+                event.toolMillis = metrics.getToolMillis();
+                event.maxRenderLagMillis = metrics.getMaxRenderLagMillis();
+                event.failed = failed;
+                event.commit();
+            }
+            record(metrics);
+            return metrics;
+        }
+
+        private long millis(long nanos) {
+            return nanos / 1_000_000;
+        }
+    }
+
+    /**
+     * Measurements of a finished turn. Values that were not measured are -1.
+     */
+    static class TurnMetrics {
+        private final long timestampMillis;
+        private final String model;
+        private final String path;
+        private final boolean failed;
+        private final int chunks;
+        private final int tokens;
+        private final long firstChunkMillis;
+        private final long totalMillis;
+        private final double meanGapMillis;
+        private final long maxGapMillis;
+        private final double tokensPerSecond;
+        private final long toolMillis;
+        private final long maxRenderLagMillis;
+
+        TurnMetrics(long timestampMillis, String model, String path, boolean failed, int chunks, int tokens,
+                long firstChunkMillis, long totalMillis, double meanGapMillis, long maxGapMillis,
+                double tokensPerSecond, long toolMillis, long maxRenderLagMillis) {
+            this.timestampMillis = timestampMillis;
+            this.model = model;
+            this.path = path;
+            this.failed = failed;
+            this.chunks = chunks;
+            this.tokens = tokens;
+            this.firstChunkMillis = firstChunkMillis;
+            this.totalMillis = totalMillis;
+            this.meanGapMillis = meanGapMillis;
+            this.maxGapMillis = maxGapMillis;
+            this.tokensPerSecond = tokensPerSecond;
+            this.toolMillis = toolMillis;
+            this.maxRenderLagMillis = maxRenderLagMillis;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        public long getFirstChunkMillis() {
+            return firstChunkMillis;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public double getMeanGapMillis() {
+            return meanGapMillis;
+        }
+
+        public long getMaxGapMillis() {
+            return maxGapMillis;
+        }
+
+        public double getTokensPerSecond() {
+            return tokensPerSecond;
+        }
+
+        public long getToolMillis() {
+            return toolMillis;
+        }
+
+        public long getMaxRenderLagMillis() {
+            return maxRenderLagMillis;
+        }
+    }
+}
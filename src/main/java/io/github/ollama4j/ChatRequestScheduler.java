@@ -0,0 +1,134 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.generate.OllamaStreamHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs chat requests on a bounded pool of worker threads.
+ * <p>
+ * At most {@code maxConcurrent} requests talk to the server at the same time, further requests wait in a queue of
+ * {@code queueCapacity} entries and are rejected once it is full. Each submitted request can be cancelled: a queued
+ * request is dropped, a running one is interrupted and its stream handler rejects further chunks, which aborts the
+ * HTTP stream so the server stops generating.
+ */
+class ChatRequestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ChatRequestScheduler.class);
+
+    private final ThreadPoolExecutor executor;
+
+    @FunctionalInterface
+    interface ChatTask<T> {
+        T call(OllamaStreamHandler streamHandler) throws Exception;
+    }
+
+    ChatRequestScheduler(String name, int maxConcurrent, int queueCapacity) {
+        int threads = Math.max(1, maxConcurrent);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a chat request.
+     *
+     * @param task          the blocking call to run, it must pass the given stream handler on to the API
+     * @param streamHandler receives the streamed chunks until the request is cancelled
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> ChatRequest<T> submit(ChatTask<T> task, OllamaStreamHandler streamHandler) {
+        ChatRequest<T> request = new ChatRequest<>(task, streamHandler);
+        request.future = executor.submit(request::run);
+        return request;
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    static class ChatRequest<T> {
+        private final ChatTask<T> task;
+        private final OllamaStreamHandler streamHandler;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile boolean cancelled = false;
+        private volatile Future<?> future;
+
+        private ChatRequest(ChatTask<T> task, OllamaStreamHandler streamHandler) {
+            this.task = task;
+            this.streamHandler = streamHandler;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                T value = task.call(chunk -> {
+                    if (cancelled) {
+                        throw new CancellationException("Chat request cancelled");
+                    }
+                    streamHandler.accept(chunk);
+                });
+                result.complete(value);
+            } catch (Exception e) {
+                if (cancelled) {
+                    logger.debug("Chat request cancelled: {}", e.toString());
+                    result.completeExceptionally(new CancellationException("Chat request cancelled"));
+                } else {
+                    result.completeExceptionally(e);
+                }
+            } finally {
+                // do not leak the interrupt used for cancellation into the next request on this thread
+                Thread.interrupted();
+            }
+        }
+
+        /**
+         * Completes with the task's return value, or exceptionally with the task's exception or a
+         * {@link CancellationException} once the request is cancelled.
+         */
+        public CompletableFuture<T> result() {
+            return result;
+        }
+
+        public void cancel() {
+            if (cancelled || result.isDone()) {
+                return;
+            }
+            cancelled = true;
+            Future<?> running = future;
+            if (running != null) {
+                running.cancel(true);
+            }
+            result.completeExceptionally(new CancellationException("Chat request cancelled"));
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Virtualized chat transcript that renders one cell per message.
+ * <p>
+ * Only the cells intersecting the visible area are laid out and painted. Cells that have not been on screen yet use an
+ * estimated height; the real height is measured the first time a cell is painted and cached until the width changes.
+ * Heights are kept in a Fenwick tree so finding the cell at a given offset and updating a cell's height are both
+ * O(log n) in the number of messages.
+ * <p>
+ * The view holds references to the chat history messages rather than copies of their text. Entries for the turn in
+ * progress (the pending prompt and the streamed reply) are kept separately until the history is updated.
+ * <p>
+ * The reply being streamed has its own renderer that streamed text is appended to, so a flush costs the length of the
+ * new text rather than of the whole reply. Its height grows by an estimate for the appended text and is measured
+ * exactly at most every {@value #STREAMING_MEASURE_INTERVAL_MILLIS} ms, and once more when the turn is committed.
+ */
+class ChatTranscriptView extends JComponent implements Scrollable {
+    private static final int DEFAULT_WIDTH = 600;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int STREAMING_MEASURE_INTERVAL_MILLIS = 250;
+
+    private final JTextArea cellRenderer = createRenderer();
+    // renders the last pending entry, streamed text is appended to it instead of replacing its text
+    private final JTextArea streamingRenderer = createRenderer();
+    private final Timer streamingMeasureTimer;
+    private final CellRendererPane rendererPane = new CellRendererPane();
+    private final Color userBackground;
+    private final Color assistantBackground;
+
+    private List<OllamaChatMessage> messages = new ArrayList<>();
+    private final List<Entry> pendingEntries = new ArrayList<>();
+
+    private int[] heights = new int[INITIAL_CAPACITY];
+    private boolean[] measured = new boolean[INITIAL_CAPACITY];
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int cellCount = 0;
+    private int totalHeight = 0;
+    private int layoutWidth = -1;
+    private int popupIndex = -1;
+    // the cell and content length streamingRenderer currently holds, -1 if none
+    private int streamingIndex = -1;
+    private int streamingLength = 0;
+    private long streamingMeasuredNanos = 0;
+
+    private static class Entry {
+        private final String label;
+        private final StringBuilder text;
+
+        private Entry(String label, String text) {
+            this.label = label;
+            this.text = new StringBuilder(text);
+        }
+    }
+
+    ChatTranscriptView() {
+        streamingMeasureTimer = new Timer(STREAMING_MEASURE_INTERVAL_MILLIS, e -> repaint());
+        streamingMeasureTimer.setRepeats(false);
+        assistantBackground = cellRenderer.getBackground();
+        userBackground = shade(assistantBackground);
+        setFont(cellRenderer.getFont());
+        setOpaque(true);
+        setBackground(assistantBackground);
+        add(rendererPane);
+
+        JPopupMenu popupMenu = new JPopupMenu();
+        JMenuItem copyItem = new JMenuItem("Copy Message");
+        copyItem.addActionListener(e -> {
+            if (popupIndex >= 0 && popupIndex < cellCount) {
+                Toolkit.getDefaultToolkit().getSystemClipboard()
+                        .setContents(new StringSelection(contentAt(popupIndex)), null);
+            }
+        });
+        popupMenu.add(copyItem);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                showPopup(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                showPopup(e);
+            }
+
+            private void showPopup(MouseEvent e) {
+                if (!e.isPopupTrigger() || cellCount == 0 || e.getY() >= totalHeight) {
+                    return;
+                }
+                popupIndex = indexAt(e.getY());
+                popupMenu.show(ChatTranscriptView.this, e.getX(), e.getY());
+            }
+        });
+    }
+
+    /**
+     * Shows the given chat history and discards the entries of the turn in progress. Heights already measured for
+     * messages that are still at the same position are kept.
+     */
+    public void setMessages(List<OllamaChatMessage> newMessages) {
+        List<OllamaChatMessage> snapshot = new ArrayList<>(newMessages);
+        int keep = 0;
+        int limit = Math.min(messages.size(), snapshot.size());
+        while (keep < limit && messages.get(keep) == snapshot.get(keep)) {
+            keep++;
+        }
+        messages = snapshot;
+        pendingEntries.clear();
+        resetStreamingRenderer();
+        truncate(keep);
+        for (int i = keep; i < messages.size(); i++) {
+            appendCell();
+        }
+        contentChanged();
+    }
+
+    /**
+     * Adds an entry for the turn in progress, e.g. the prompt that was just sent or the reply being streamed.
+     */
+    public void addEntry(String label, String text) {
+        pendingEntries.add(new Entry(label, text));
+        appendCell();
+        contentChanged();
+    }
+
+    /**
+     * Appends text to the last entry added with {@link #addEntry(String, String)}.
+     */
+    public void appendToLastEntry(String text) {
+        if (pendingEntries.isEmpty()) {
+            addEntry("AI", text);
+            return;
+        }
+        Entry entry = pendingEntries.get(pendingEntries.size() - 1);
+        int lengthBefore = entry.text.length();
+        entry.text.append(text);
+        // grow the height by the appended text only; the exact height is measured when the cell is painted, at most
+        // every STREAMING_MEASURE_INTERVAL_MILLIS
+        int last = cellCount - 1;
+        int grown = estimateHeight(entry.label, entry.text.length()) - estimateHeight(entry.label, lengthBefore)
+                + lineBreaks(text) * getFontMetrics(getFont()).getHeight();
+        setHeight(last, heights[last] + grown);
+        measured[last] = false;
+        contentChanged();
+    }
+
+    public void clear() {
+        setMessages(new ArrayList<>());
+    }
+
+    private String labelAt(int index) {
+        if (index < messages.size()) {
+            return labelFor(messages.get(index).getRole());
+        }
+        return pendingEntries.get(index - messages.size()).label;
+    }
+
+    private String contentAt(int index) {
+        if (index < messages.size()) {
+            String content = messages.get(index).getContent();
+            return content == null ? "" : content;
+        }
+        return pendingEntries.get(index - messages.size()).text.toString();
+    }
+
+    private int contentLengthAt(int index) {
+        if (index < messages.size()) {
+            String content = messages.get(index).getContent();
+            return content == null ? 0 : content.length();
+        }
+        return pendingEntries.get(index - messages.size()).text.length();
+    }
+
+    private boolean isStreamingCell(int index) {
+        return !pendingEntries.isEmpty() && index == cellCount - 1;
+    }
+
+    private boolean isUserCell(int index) {
+        if (index < messages.size()) {
+            return isRole(messages.get(index).getRole(), OllamaChatMessageRole.USER);
+        }
+        return "You".equals(pendingEntries.get(index - messages.size()).label);
+    }
+
+    static boolean isRole(OllamaChatMessageRole role, OllamaChatMessageRole expected) {
+        return role != null && expected.getRoleName().equals(role.getRoleName());
+    }
+
+    static String labelFor(OllamaChatMessageRole role) {
+        if (isRole(role, OllamaChatMessageRole.USER)) {
+            return "You";
+        }
+        if (isRole(role, OllamaChatMessageRole.ASSISTANT)) {
+            return "AI";
+        }
+        String name = role == null ? "" : role.getRoleName();
+        return name.isEmpty() ? "System" : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void contentChanged() {
+        boolean stickToBottom = isScrolledToBottom();
+        revalidate();
+        repaint();
+        if (stickToBottom) {
+            SwingUtilities.invokeLater(() -> scrollRectToVisible(new Rectangle(0, Math.max(0, totalHeight - 1), 1, 1)));
+        }
+    }
+
+    private boolean isScrolledToBottom() {
+        Container parent = getParent();
+        if (!(parent instanceof JViewport)) {
+            return true;
+        }
+        Rectangle viewRect = ((JViewport) parent).getViewRect();
+        return viewRect.y + viewRect.height >= getHeight() - 4;
+    }
+
+    // --- height bookkeeping ---
+
+    private void appendCell() {
+        if (cellCount == heights.length) {
+            int capacity = heights.length * 2;
+            heights = Arrays.copyOf(heights, capacity);
+            measured = Arrays.copyOf(measured, capacity);
+            rebuildTree();
+        }
+        int index = cellCount++;
+        measured[index] = false;
+        heights[index] = 0;
+        setHeight(index, estimateHeight(labelAt(index), contentLengthAt(index)));
+    }
+
+    private void truncate(int count) {
+        for (int i = count; i < cellCount; i++) {
+            heights[i] = 0;
+            measured[i] = false;
+        }
+        cellCount = count;
+        rebuildTree();
+    }
+
+    private void setHeight(int index, int height) {
+        int delta = height - heights[index];
+        if (delta == 0) {
+            return;
+        }
+        heights[index] = height;
+        totalHeight += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuildTree() {
+        tree = new int[heights.length + 1];
+        totalHeight = 0;
+        for (int i = 0; i < cellCount; i++) {
+            tree[i + 1] += heights[i];
+            totalHeight += heights[i];
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent < tree.length) {
+                tree[parent] += tree[i + 1];
+            }
+        }
+    }
+
+    /**
+     * Returns the y offset of the top of the cell at the given index.
+     */
+    private int offsetOf(int index) {
+        int sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the index of the cell containing the given y offset.
+     */
+    private int indexAt(int y) {
+        int index = 0;
+        int remaining = y;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(index, cellCount - 1);
+    }
+
+    private void syncLayoutWidth() {
+        int width = getWidth() > 0 ? getWidth() : DEFAULT_WIDTH;
+        if (width == layoutWidth) {
+            return;
+        }
+        layoutWidth = width;
+        for (int i = 0; i < cellCount; i++) {
+            measured[i] = false;
+            heights[i] = estimateHeight(labelAt(i), contentLengthAt(i));
+        }
+        rebuildTree();
+    }
+
+    private int estimateHeight(String label, int contentLength) {
+        FontMetrics metrics = getFontMetrics(getFont());
+        Insets insets = cellRenderer.getInsets();
+        int width = (layoutWidth > 0 ? layoutWidth : DEFAULT_WIDTH) - insets.left - insets.right;
+        int averageCharWidth = Math.max(1, metrics.charWidth('n'));
+        int charsPerLine = Math.max(1, width / averageCharWidth);
+        int lines = 1 + (label.length() + 2 + contentLength) / charsPerLine;
+        return lines * metrics.getHeight() + insets.top + insets.bottom;
+    }
+
+    private static int lineBreaks(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int measureCell(int index) {
+        JTextArea renderer = prepareRenderer(index);
+        renderer.setSize(layoutWidth > 0 ? layoutWidth : DEFAULT_WIDTH, Short.MAX_VALUE);
+        measured[index] = true;
+        if (isStreamingCell(index)) {
+            streamingMeasuredNanos = System.nanoTime();
+        }
+        return renderer.getPreferredSize().height;
+    }
+
+    /**
+     * Whether an unmeasured cell should be measured now. The streamed reply is measured at most every
+     * STREAMING_MEASURE_INTERVAL_MILLIS; in between it keeps its estimated height and a repaint is scheduled so the
+     * last flush is measured too.
+     */
+    private boolean measureDue(int index) {
+        if (!isStreamingCell(index)
+                || System.nanoTime() - streamingMeasuredNanos >= STREAMING_MEASURE_INTERVAL_MILLIS * 1_000_000L) {
+            return true;
+        }
+        if (!streamingMeasureTimer.isRunning()) {
+            streamingMeasureTimer.start();
+        }
+        return false;
+    }
+
+    private JTextArea prepareRenderer(int index) {
+        JTextArea renderer;
+        if (isStreamingCell(index)) {
+            Entry entry = pendingEntries.get(pendingEntries.size() - 1);
+            if (streamingIndex != index) {
+                streamingRenderer.setText(entry.label + ": " + entry.text);
+                streamingIndex = index;
+            } else if (entry.text.length() > streamingLength) {
+                streamingRenderer.append(entry.text.substring(streamingLength));
+            }
+            streamingLength = entry.text.length();
+            renderer = streamingRenderer;
+        } else {
+            cellRenderer.setText(labelAt(index) + ": " + contentAt(index));
+            renderer = cellRenderer;
+        }
+        renderer.setBackground(isUserCell(index) ? userBackground : assistantBackground);
+        return renderer;
+    }
+
+    private void resetStreamingRenderer() {
+        streamingIndex = -1;
+        streamingLength = 0;
+        streamingRenderer.setText("");
+        streamingMeasureTimer.stop();
+    }
+
+    private static JTextArea createRenderer() {
+        JTextArea renderer = new JTextArea();
+        renderer.setLineWrap(true);
+        renderer.setWrapStyleWord(true);
+        renderer.setEditable(false);
+        renderer.setBorder(new EmptyBorder(6, 8, 6, 8));
+        return renderer;
+    }
+
+    private static Color shade(Color color) {
+        float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
+        float brightness = hsb[2] > 0.5f ? hsb[2] - 0.05f : hsb[2] + 0.08f;
+        return Color.getHSBColor(hsb[0], hsb[1], brightness);
+    }
+
+    // --- painting ---
+
+    @Override
+    public Dimension getPreferredSize() {
+        syncLayoutWidth();
+        return new Dimension(layoutWidth, totalHeight);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        syncLayoutWidth();
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (cellCount == 0 || clip.y >= totalHeight) {
+            return;
+        }
+
+        int heightBefore = totalHeight;
+        int index = indexAt(clip.y);
+        int y = offsetOf(index);
+        int bottom = clip.y + clip.height;
+        while (index < cellCount && y < bottom) {
+            JTextArea renderer;
+            if (!measured[index] && measureDue(index)) {
+                setHeight(index, measureCell(index));
+                renderer = isStreamingCell(index) ? streamingRenderer : cellRenderer;
+            } else {
+                renderer = prepareRenderer(index);
+            }
+            int height = heights[index];
+            rendererPane.paintComponent(g, renderer, this, 0, y, layoutWidth, height, true);
+            y += height;
+            index++;
+        }
+        rendererPane.removeAll();
+
+        if (totalHeight != heightBefore) {
+            // estimated heights were replaced by measured ones, resize once the current paint is done
+            SwingUtilities.invokeLater(this::contentChanged);
+        }
+    }
+
+    // --- Scrollable ---
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(DEFAULT_WIDTH, 300);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > totalHeight;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.ollama4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event covering one chat turn, from sending the prompt to the last streamed chunk.
+ */
+@Name("io.github.ollama4j.ChatTurn")
+@Label("Chat Turn")
+@Category("Ollama4j UI")
+@Description("A chat turn sent to the Ollama server")
+class ChatTurnEvent extends jdk.jfr.Event {
+    @Label("Model")
+    String model;
+
+    @Label("Path")
+    String path;
+
+    @Label("Time to First Chunk")
+    @Timespan(Timespan.MILLISECONDS)
+    long firstChunkMillis;
+
+    @Label("Chunks")
+    int chunks;
+
+    @Label("Mean Inter-Chunk Gap")
+    @Timespan(Timespan.MILLISECONDS)
+    long meanGapMillis;
+
+    @Label("Max Inter-Chunk Gap")
+    @Timespan(Timespan.MILLISECONDS)
+    long maxGapMillis;
+
+    @Label("Estimated Tokens")
+    int tokens;
+
+    @Label("Tokens per Second")
+    double tokensPerSecond;
+
+    @Label("Tool Round Trip")
+    @Timespan(Timespan.MILLISECONDS)
+    long toolMillis;
+
+    @Label("Max Render Lag")
+    @Timespan(Timespan.MILLISECONDS)
+    long maxRenderLagMillis;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,154 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps chat requests within a token budget.
+ * <p>
+ * Token counts are estimated by scanning the message text the way BPE tokenizers typically split it (a token per short
+ * word, longer words split every few characters, one token per punctuation mark) plus a small per-message overhead.
+ * Estimates are cached per message content, so a message is only scanned once no matter how many turns it is sent in.
+ * <p>
+ * System messages are always kept; the remaining budget is filled with the most recent messages and older ones are
+ * dropped from the request (they stay in the local history).
+ */
+class ContextWindowManager {
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    // keyed on the content string, which is referenced by the message for as long as the message lives
+    private final Map<String, Integer> tokenCache = new WeakHashMap<>();
+    private volatile int tokenBudget;
+
+    static class ContextWindow {
+        private final List<OllamaChatMessage> messages;
+        private final int estimatedTokens;
+        private final int droppedMessages;
+
+        private ContextWindow(List<OllamaChatMessage> messages, int estimatedTokens, int droppedMessages) {
+            this.messages = messages;
+            this.estimatedTokens = estimatedTokens;
+            this.droppedMessages = droppedMessages;
+        }
+
+        /**
+         * The history messages to send, in their original order, excluding the new prompt.
+         */
+        public List<OllamaChatMessage> getMessages() {
+            return messages;
+        }
+
+        /**
+         * Estimated tokens of the selected messages including the new prompt.
+         */
+        public int getEstimatedTokens() {
+            return estimatedTokens;
+        }
+
+        public int getDroppedMessages() {
+            return droppedMessages;
+        }
+    }
+
+    ContextWindowManager(int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+
+    public void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    /**
+     * Selects the history messages to send along with the given prompt.
+     */
+    public ContextWindow select(List<OllamaChatMessage> history, String prompt) {
+        int budget = tokenBudget;
+        int used = estimateTokens(prompt) + MESSAGE_OVERHEAD_TOKENS;
+        boolean[] include = new boolean[history.size()];
+
+        for (int i = 0; i < history.size(); i++) {
+            OllamaChatMessage message = history.get(i);
+            if (ChatTranscriptView.isRole(message.getRole(), OllamaChatMessageRole.SYSTEM)) {
+                include[i] = true;
+                used += estimateTokens(message);
+            }
+        }
+        for (int i = history.size() - 1; i >= 0; i--) {
+            if (include[i]) {
+                continue;
+            }
+            int tokens = estimateTokens(history.get(i));
+            if (used + tokens > budget) {
+                break;
+            }
+            include[i] = true;
+            used += tokens;
+        }
+
+        List<OllamaChatMessage> selected = new ArrayList<>();
+        for (int i = 0; i < include.length; i++) {
+            if (include[i]) {
+                selected.add(history.get(i));
+            }
+        }
+        return new ContextWindow(Collections.unmodifiableList(selected), used, history.size() - selected.size());
+    }
+
+    public int estimateTokens(OllamaChatMessage message) {
+        return estimateTokens(message.getContent()) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * Estimated tokens of a piece of text, without the per-message overhead.
+     */
+    public int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        synchronized (tokenCache) {
+            Integer cached = tokenCache.get(text);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int tokens = scanTokens(text);
+        synchronized (tokenCache) {
+            tokenCache.put(text, tokens);
+        }
+        return tokens;
+    }
+
+    private static int scanTokens(String text) {
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 0x3000) {
+                wordLength++;
+                continue;
+            }
+            tokens += wordTokens(wordLength);
+            wordLength = 0;
+            if (!Character.isWhitespace(c)) {
+                // punctuation, symbols and CJK characters
+                tokens++;
+            }
+        }
+        return tokens + wordTokens(wordLength);
+    }
+
+    private static int wordTokens(int wordLength) {
+        return wordLength == 0 ? 0 : 1 + (wordLength - 1) / CHARS_PER_WORD_TOKEN;
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only store of chat sessions.
+ * <p>
+ * Every session is a JSON lines file with one message per line, appended (and synced to disk) as messages complete,
+ * so a crash loses at most the message being written. Sessions are listed from a small index file that holds one line
+ * per session, which means listing does not read any messages; they are only loaded when a session is opened.
+ * <p>
+ * All file access runs on a single background thread, in submission order.
+ */
+class ConversationStore {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStore.class);
+    private static final String INDEX_FILE_NAME = "index.tsv";
+    private static final int MAX_TITLE_LENGTH = 80;
+
+    private final File directory;
+    private final File indexFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-conversation-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // loaded on first use, only touched on the store thread
+    private List<SessionInfo> sessions = null;
+
+    static class SessionInfo {
+        private final String id;
+        private final long createdAtMillis;
+        private final String model;
+        private final String title;
+        private volatile boolean persisted;
+
+        private SessionInfo(String id, long createdAtMillis, String model, String title, boolean persisted) {
+            this.id = id;
+            this.createdAtMillis = createdAtMillis;
+            this.model = model;
+            this.title = title;
+            this.persisted = persisted;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String toString() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(createdAtMillis)) + "  [" + model + "]  "
+                    + title;
+        }
+    }
+
+    ConversationStore(File directory) {
+        this.directory = directory;
+        this.indexFile = new File(directory, INDEX_FILE_NAME);
+    }
+
+    /**
+     * Creates a session in memory. Nothing is written until the first message is appended.
+     */
+    public SessionInfo newSession(String model, String firstPrompt) {
+        String title = firstPrompt.replaceAll("\\s+", " ").trim();
+        if (title.length() > MAX_TITLE_LENGTH) {
+            title = title.substring(0, MAX_TITLE_LENGTH - 3) + "...";
+        }
+        return new SessionInfo(UUID.randomUUID().toString(), System.currentTimeMillis(), model, title, false);
+    }
+
+    /**
+     * Appends messages to a session's journal, registering the session in the index first if needed. Every message is
+     * recorded with the current time.
+     */
+    public CompletableFuture<Void> append(SessionInfo session, List<OllamaChatMessage> messages) {
+        return append(session, messages, -1);
+    }
+
+    /**
+     * Appends the messages of a turn to a session's journal. The user's messages are recorded with the time the turn
+     * was sent, the others with the current time.
+     *
+     * @param sentAtMillis when the turn was sent, or -1 to record every message with the current time
+     */
+    public CompletableFuture<Void> append(SessionInfo session, List<OllamaChatMessage> messages, long sentAtMillis) {
+        List<OllamaChatMessage> snapshot = new ArrayList<>(messages);
+        return run(() -> {
+            if (!session.persisted) {
+                appendToIndex(session);
+                session.persisted = true;
+            }
+            File sessionFile = sessionFile(session.getId());
+            try (FileOutputStream out = new FileOutputStream(sessionFile, true);
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                long now = System.currentTimeMillis();
+                for (OllamaChatMessage message : snapshot) {
+                    Map<String, Object> record = new LinkedHashMap<>();
+                    record.put("role", message.getRole().getRoleName());
+                    record.put("content", message.getContent());
+                    record.put("timestamp", sentAtMillis >= 0 && message.getRole() == OllamaChatMessageRole.USER
+                            ? sentAtMillis
+                            : now);
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.write('\n');
+                }
+                writer.flush();
+                out.getFD().sync();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Completes once everything submitted before, e.g. appends, has been written.
+     */
+    public CompletableFuture<Void> sync() {
+        return run(() -> null);
+    }
+
+    /**
+     * Lists the stored sessions, newest first. Only the index is read.
+     */
+    public CompletableFuture<List<SessionInfo>> listSessions() {
+        return run(() -> {
+            List<SessionInfo> result = new ArrayList<>(loadIndex());
+            Collections.reverse(result);
+            return result;
+        });
+    }
+
+    /**
+     * Reads the messages of a session. A partially written last line (e.g. after a crash) is skipped.
+     */
+    public CompletableFuture<List<OllamaChatMessage>> loadMessages(SessionInfo session) {
+        return run(() -> {
+            List<OllamaChatMessage> messages = new ArrayList<>();
+            readMessages(session, (role, content, timestampMillis) -> messages.add(new OllamaChatMessage(role,
+                    content)));
+            return messages;
+        });
+    }
+
+    interface MessageVisitor {
+        void visit(OllamaChatMessageRole role, String content, long timestampMillis) throws IOException;
+    }
+
+    /**
+     * Streams the messages of a session to the visitor one line at a time, on the calling thread. Session files are
+     * only ever appended to, so this is safe while the store is writing; messages appended meanwhile may be missed.
+     */
+    public void readMessages(SessionInfo session, MessageVisitor visitor) throws IOException {
+        File sessionFile = sessionFile(session.getId());
+        if (!sessionFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(sessionFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable line in session {}: {}", session.getId(), e.getMessage());
+                    continue;
+                }
+                visitor.visit(roleOf(node.path("role").asText()), node.path("content").asText(),
+                        node.path("timestamp").asLong(-1));
+            }
+        }
+    }
+
+    private List<SessionInfo> loadIndex() throws IOException {
+        if (sessions != null) {
+            return sessions;
+        }
+        List<SessionInfo> loaded = new ArrayList<>();
+        if (indexFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", 4);
+                    if (fields.length < 4) {
+                        continue;
+                    }
+                    try {
+                        loaded.add(new SessionInfo(fields[0], Long.parseLong(fields[1]), fields[2], fields[3], true));
+                    } catch (NumberFormatException e) {
+                        logger.warn("Skipping malformed session index entry: {}", line);
+                    }
+                }
+            }
+        }
+        sessions = loaded;
+        return sessions;
+    }
+
+    private void appendToIndex(SessionInfo session) throws IOException {
+        loadIndex();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        String line = session.getId() + "\t" + session.getCreatedAtMillis() + "\t" + sanitize(session.getModel())
+                + "\t" + sanitize(session.getTitle()) + "\n";
+        try (FileOutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        sessions.add(session);
+    }
+
+    private File sessionFile(String id) {
+        return new File(directory, id + ".jsonl");
+    }
+
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    static OllamaChatMessageRole roleOf(String roleName) {
+        for (OllamaChatMessageRole role : List.of(OllamaChatMessageRole.SYSTEM, OllamaChatMessageRole.USER,
+                OllamaChatMessageRole.ASSISTANT, OllamaChatMessageRole.TOOL)) {
+            if (role.getRoleName().equals(roleName)) {
+                return role;
+            }
+        }
+        return OllamaChatMessageRole.USER;
+    }
+
+    @FunctionalInterface
+    private interface StoreTask<T> {
+        T call() throws IOException;
+    }
+
+    private <T> CompletableFuture<T> run(StoreTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (IOException e) {
+                logger.error("Conversation store error: {}", e.getMessage());
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.ollama4j;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableColumn;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only table model over an immutable list of rows, with as-you-type filtering and column sorting.
+ * <p>
+ * When rows are set, the words of each row's searchable text are put into a sorted token index, so a filter is
+ * answered by looking up each query word as a prefix in the index and intersecting the matching rows, instead of
+ * scanning every row's text. The rows shown are kept as an array of row numbers; filtering and sorting only rebuild
+ * that array. Each column sorts by its own comparator, so e.g. sizes sort by their byte count rather than by the
+ * formatted text.
+ */
+class IndexedTableModel<T> extends AbstractTableModel {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MAGNITUDE = Pattern.compile("([\\d.,]+)\\s*([KMBT]?)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern AGE = Pattern.compile("(\\d+|an?)\\s+(second|minute|hour|day|week|month|year)s?",
+            Pattern.CASE_INSENSITIVE);
+
+    static class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+        private final Comparator<T> order;
+
+        private Column(String name, Function<T, Object> value, Comparator<T> order) {
+            this.name = name;
+            this.value = value;
+            this.order = order;
+        }
+
+        /**
+         * A column of text, sorted alphabetically ignoring case.
+         */
+        static <T> Column<T> text(String name, Function<T, String> value) {
+            return new Column<>(name, value::apply, Comparator.comparing(row -> String.valueOf(value.apply(row)),
+                    String.CASE_INSENSITIVE_ORDER));
+        }
+
+        /**
+         * A column shown as {@code display} but sorted by a number, e.g. a size shown as {@code 4.2 GB}.
+         */
+        static <T> Column<T> numeric(String name, Function<T, Object> display, ToDoubleFunction<T> sortKey) {
+            return new Column<>(name, display, Comparator.comparingDouble(sortKey));
+        }
+    }
+
+    private final List<Column<T>> columns;
+    private final Function<T, String> searchableText;
+    private List<T> rows = List.of();
+    // token -> ascending numbers of the rows containing it
+    private TreeMap<String, int[]> index = new TreeMap<>();
+    // numbers of the rows shown, in display order
+    private int[] view = new int[0];
+    private String filter = "";
+    private int sortColumn = -1;
+    private boolean ascending = true;
+
+    IndexedTableModel(List<Column<T>> columns, Function<T, String> searchableText) {
+        this.columns = List.copyOf(columns);
+        this.searchableText = searchableText;
+    }
+
+    /**
+     * Replaces the rows and rebuilds the index, keeping the filter and sort order.
+     */
+    public void setRows(List<T> newRows) {
+        rows = List.copyOf(newRows);
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int row = 0; row < rows.size(); row++) {
+            for (String token : tokenize(searchableText.apply(rows.get(row)))) {
+                List<Integer> rowNumbers = postings.computeIfAbsent(token, t -> new ArrayList<>());
+                if (rowNumbers.isEmpty() || rowNumbers.get(rowNumbers.size() - 1) != row) {
+                    rowNumbers.add(row);
+                }
+            }
+        }
+        TreeMap<String, int[]> newIndex = new TreeMap<>();
+        postings.forEach((token, rowNumbers) -> newIndex.put(token,
+                rowNumbers.stream().mapToInt(Integer::intValue).toArray()));
+        index = newIndex;
+        updateView();
+    }
+
+    /**
+     * Shows only the rows that have a word starting with each word of the filter.
+     */
+    public void setFilter(String filter) {
+        this.filter = filter == null ? "" : filter;
+        updateView();
+    }
+
+    /**
+     * Sorts by the column, or reverses the order if it is sorted by that column already.
+     */
+    public void sortBy(int column) {
+        ascending = column != sortColumn || !ascending;
+        sortColumn = column;
+        updateView();
+    }
+
+    /**
+     * The row shown at the given view index.
+     */
+    public T getRow(int viewRow) {
+        return rows.get(view[viewRow]);
+    }
+
+    public int getTotalRowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Sorts the table when a column header is clicked and shows the sort order in the header.
+     */
+    public void installSorting(JTable table) {
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewColumn = table.columnAtPoint(e.getPoint());
+                if (viewColumn < 0) {
+                    return;
+                }
+                sortBy(table.convertColumnIndexToModel(viewColumn));
+                for (int i = 0; i < table.getColumnModel().getColumnCount(); i++) {
+                    TableColumn column = table.getColumnModel().getColumn(i);
+                    column.setHeaderValue(getColumnName(column.getModelIndex()));
+                }
+                table.getTableHeader().repaint();
+            }
+        });
+    }
+
+    private void updateView() {
+        int[] matching = match(filter);
+        if (sortColumn >= 0) {
+            Comparator<T> order = columns.get(sortColumn).order;
+            Comparator<Integer> byRow = (a, b) -> order.compare(rows.get(a), rows.get(b));
+            // boxed so the sort is stable and rows that compare equal keep their order
+            Integer[] sorted = Arrays.stream(matching).boxed().toArray(Integer[]::new);
+            Arrays.sort(sorted, ascending ? byRow : byRow.reversed());
+            matching = Arrays.stream(sorted).mapToInt(Integer::intValue).toArray();
+        }
+        view = matching;
+        fireTableDataChanged();
+    }
+
+    private int[] match(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            int[] all = new int[rows.size()];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        BitSet result = null;
+        for (String token : tokens) {
+            BitSet matches = new BitSet(rows.size());
+            // every indexed word that starts with the token
+            for (int[] rowNumbers : index.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                for (int row : rowNumbers) {
+                    matches.set(row);
+                }
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public int getRowCount() {
+        return view.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String name = columns.get(column).name;
+        return column == sortColumn ? name + (ascending ? " ▲" : " ▼") : name;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return columns.get(columnIndex).value.apply(rows.get(view[rowIndex]));
+    }
+
+    /**
+     * Parses counts and sizes such as {@code 5.2M}, {@code 13,000} or {@code 8.0B}. Returns -1 if there is no number.
+     */
+    static double parseMagnitude(String text) {
+        if (text == null) {
+            return -1;
+        }
+        Matcher matcher = MAGNITUDE.matcher(text.trim());
+        if (!matcher.find()) {
+            return -1;
+        }
+        double value;
+        try {
+            value = Double.parseDouble(matcher.group(1).replace(",", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        switch (matcher.group(2).toUpperCase(Locale.ROOT)) {
+            case "K":
+                return value * 1e3;
+            case "M":
+                return value * 1e6;
+            case "B":
+                return value * 1e9;
+            case "T":
+                return value * 1e12;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Parses relative times such as {@code 2 weeks ago} into seconds, so they sort by age. Unknown text sorts last.
+     */
+    static double parseAgeSeconds(String text) {
+        if (text == null) {
+            return Double.MAX_VALUE;
+        }
+        if (text.trim().equalsIgnoreCase("yesterday")) {
+            return 86_400;
+        }
+        Matcher matcher = AGE.matcher(text);
+        if (!matcher.find()) {
+            return Double.MAX_VALUE;
+        }
+        String amount = matcher.group(1).toLowerCase(Locale.ROOT);
+        double count = amount.startsWith("a") ? 1 : Double.parseDouble(amount);
+        switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "second":
+                return count;
+            case "minute":
+                return count * 60;
+            case "hour":
+                return count * 3_600;
+            case "day":
+                return count * 86_400;
+            case "week":
+                return count * 604_800;
+            case "month":
+                return count * 2_592_000;
+            default:
+                return count * 31_536_000;
+        }
+    }
+}
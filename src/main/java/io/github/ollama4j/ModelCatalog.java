@@ -0,0 +1,123 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.response.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caches the list of models available on the Ollama server and shares it between panels.
+ * <p>
+ * The list is fetched in the background and kept for {@code ttlMillis}. Concurrent refresh requests share a single
+ * in-flight fetch. Listeners are notified on the EDT whenever a fetch completes.
+ */
+class ModelCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ModelCatalog.class);
+
+    interface Listener {
+        void modelsLoaded(List<Model> models);
+
+        default void modelsFailed(Exception error) {
+        }
+    }
+
+    private final Callable<List<Model>> fetcher;
+    private final long ttlMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-model-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile List<Model> models = null;
+    private volatile long loadedAtMillis = 0;
+    private CompletableFuture<List<Model>> inFlight = null;
+
+    ModelCatalog(Callable<List<Model>> fetcher, long ttlMillis) {
+        this.fetcher = fetcher;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Registers a listener. If the models have been loaded already, the listener is notified right away (on the EDT).
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        List<Model> current = models;
+        if (current != null) {
+            SwingUtilities.invokeLater(() -> listener.modelsLoaded(current));
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the cached models, or an empty list if they have not been loaded yet.
+     */
+    public List<Model> getModels() {
+        List<Model> current = models;
+        return current == null ? Collections.emptyList() : current;
+    }
+
+    public boolean isLoaded() {
+        return models != null;
+    }
+
+    /**
+     * Fetches the models unless a fetch is already running.
+     */
+    public synchronized CompletableFuture<List<Model>> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        CompletableFuture<List<Model>> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetcher.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        inFlight = future;
+        future.whenComplete((result, error) -> {
+            synchronized (this) {
+                inFlight = null;
+            }
+            if (error == null) {
+                List<Model> loaded = result == null ? Collections.emptyList() : Collections.unmodifiableList(result);
+                models = loaded;
+                loadedAtMillis = System.currentTimeMillis();
+                logger.debug("Loaded {} models", loaded.size());
+                SwingUtilities.invokeLater(() -> listeners.forEach(l -> l.modelsLoaded(loaded)));
+            } else {
+                Exception cause = error.getCause() instanceof Exception ? (Exception) error.getCause()
+                        : new Exception(error);
+                logger.error("Error fetching models: {}", cause.getMessage());
+                SwingUtilities.invokeLater(() -> listeners.forEach(l -> l.modelsFailed(cause)));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Fetches the models if they have never been loaded or the cached list is older than the TTL.
+     */
+    public CompletableFuture<List<Model>> refreshIfStale() {
+        List<Model> current = models;
+        if (current != null && System.currentTimeMillis() - loadedAtMillis < ttlMillis) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return refresh();
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.exceptions.OllamaBaseException;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatRequest;
+import io.github.ollama4j.models.chat.OllamaChatResult;
+import io.github.ollama4j.models.generate.OllamaStreamHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Sends one prompt to several models and measures how each of them responds.
+ * <p>
+ * The requests run on a scheduler of their own, so at most {@code maxConcurrent} models generate at the same time
+ * (the rest wait in the queue) and comparisons do not hold up the regular chat. Timings start when a request leaves
+ * the queue, so waiting for a free slot does not count against a model. Each model gets the request a chat turn with
+ * it would send, with the same options and profile, so the timings compare like with like. Requests go through the
+ * host pool, so each model runs on a host that has it; a failing host is reported to the pool but the request is not
+ * retried elsewhere, as that would distort its timings.
+ */
+class ModelComparison {
+    private final ChatRequestScheduler scheduler;
+    private final ContextWindowManager tokenCounter;
+
+    /**
+     * Timings of one model's response.
+     */
+    static class Stats {
+        private final String model;
+        private final long firstChunkMillis;
+        private final long totalMillis;
+        private final int outputTokens;
+
+        Stats(String model, long firstChunkMillis, long totalMillis, int outputTokens) {
+            this.model = model;
+            this.firstChunkMillis = firstChunkMillis;
+            this.totalMillis = totalMillis;
+            this.outputTokens = outputTokens;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        /**
+         * Time to the first streamed chunk, or -1 if nothing was streamed.
+         */
+        public long getFirstChunkMillis() {
+            return firstChunkMillis;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        /**
+         * Estimated number of tokens in the response.
+         */
+        public int getOutputTokens() {
+            return outputTokens;
+        }
+
+        /**
+         * Estimated generation speed, measured from the first chunk to the end of the response.
+         */
+        public double getTokensPerSecond() {
+            long generationMillis = firstChunkMillis >= 0 ? totalMillis - firstChunkMillis : totalMillis;
+            return generationMillis > 0 ? outputTokens * 1000.0 / generationMillis : 0;
+        }
+    }
+
+    ModelComparison(ContextWindowManager tokenCounter, int maxConcurrent, int queueCapacity) {
+        this.tokenCounter = tokenCounter;
+        this.scheduler = new ChatRequestScheduler("ollama4j-compare", maxConcurrent, queueCapacity);
+    }
+
+    /**
+     * Queues the prompt for every model. Each model streams into the handler returned for it.
+     *
+     * @param requestForModel builds the request for a model, with the prompt and the model's options
+     * @throws RejectedExecutionException if the queue cannot take all the models; the ones already queued are cancelled
+     */
+    public List<ChatRequestScheduler.ChatRequest<Stats>> start(OllamaHostPool hostPool, List<String> models,
+            Function<String, OllamaChatRequest> requestForModel,
+            Function<String, OllamaStreamHandler> handlerForModel) {
+        List<ChatRequestScheduler.ChatRequest<Stats>> requests = new ArrayList<>();
+        try {
+            for (String model : models) {
+                OllamaChatRequest request = requestForModel.apply(model);
+                requests.add(scheduler.submit(streamHandler -> run(hostPool, request, model, streamHandler),
+                        handlerForModel.apply(model)));
+            }
+        } catch (RejectedExecutionException e) {
+            requests.forEach(ChatRequestScheduler.ChatRequest::cancel);
+            throw e;
+        }
+        return requests;
+    }
+
+    private Stats run(OllamaHostPool hostPool, OllamaChatRequest request, String model,
+            OllamaStreamHandler streamHandler) throws Exception {
+        OllamaHostPool.Host host = hostPool.acquire(model, null, Set.of());
+        if (host == null) {
+            throw new IOException("No Ollama host has the model " + model);
+        }
+        long startNanos = System.nanoTime();
+        long[] firstChunkNanos = { -1 };
+        OllamaChatResult result;
+        try {
+            result = host.getApi().chat(request, chunk -> {
+                if (firstChunkNanos[0] < 0) {
+                    firstChunkNanos[0] = System.nanoTime();
+                }
+                streamHandler.accept(chunk);
+            });
+            hostPool.succeeded(host, null);
+        } catch (IOException | OllamaBaseException e) {
+            // an interrupt means the comparison was stopped, which says nothing about the host
+            if (!Thread.currentThread().isInterrupted()) {
+                hostPool.failed(host, e);
+            }
+            throw e;
+        } finally {
+            hostPool.release(host);
+        }
+        long endNanos = System.nanoTime();
+        List<OllamaChatMessage> chatHistory = result.getChatHistory();
+        String response = chatHistory.isEmpty() ? "" : chatHistory.get(chatHistory.size() - 1).getContent();
+        return new Stats(model,
+                firstChunkNanos[0] < 0 ? -1 : (firstChunkNanos[0] - startNanos) / 1_000_000,
+                (endNanos - startNanos) / 1_000_000,
+                tokenCounter.estimateTokens(response));
+    }
+}
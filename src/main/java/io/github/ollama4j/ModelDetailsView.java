@@ -0,0 +1,148 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.models.response.LibraryModel;
+import io.github.ollama4j.models.response.LibraryModelDetail;
+import io.github.ollama4j.models.response.LibraryModelTag;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shows the details of the model selected in a table. Details are only loaded when a model is selected, in the
+ * background, and kept until {@link #clear()}, so going back to a model shows them right away.
+ */
+class ModelDetailsView extends JPanel {
+    private final JTextArea textArea = new JTextArea();
+    private final Map<String, CompletableFuture<String>> details = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-model-details");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // only touched on the EDT
+    private String shownKey = null;
+
+    ModelDetailsView() {
+        super(new BorderLayout());
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(600, 160));
+        add(scrollPane, BorderLayout.CENTER);
+        textArea.setText("Select a model to see its details.");
+    }
+
+    /**
+     * Shows the details of a model, loading them with {@code loader} the first time. Called on the EDT; {@code null}
+     * clears the view.
+     */
+    public void show(String key, Callable<String> loader) {
+        shownKey = key;
+        if (key == null) {
+            textArea.setText("Select a model to see its details.");
+            return;
+        }
+        CompletableFuture<String> future = details.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+        if (!future.isDone()) {
+            textArea.setText("Loading details of " + key + "...");
+        }
+        future.whenComplete((text, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                // try again the next time the model is selected
+                details.remove(key, future);
+            }
+            if (!key.equals(shownKey)) {
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            textArea.setText(error != null ? "Could not load the details of " + key + ": " + cause.getMessage()
+                    : text);
+            textArea.setCaretPosition(0);
+        }));
+    }
+
+    /**
+     * Forgets the loaded details, e.g. after the model list was refreshed.
+     */
+    public void clear() {
+        details.clear();
+        show(null, null);
+    }
+
+    /**
+     * Formats the response of {@code /api/show}.
+     */
+    static String formatShowResponse(JsonNode show) {
+        StringBuilder sb = new StringBuilder();
+        JsonNode meta = show.path("details");
+        appendLine(sb, "Family", meta.path("family").asText(""));
+        appendLine(sb, "Parameter size", meta.path("parameter_size").asText(""));
+        appendLine(sb, "Quantization", meta.path("quantization_level").asText(""));
+        appendLine(sb, "Format", meta.path("format").asText(""));
+        for (Iterator<String> names = show.path("model_info").fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (name.endsWith(".context_length")) {
+                appendLine(sb, "Context length", show.path("model_info").path(name).asText());
+            }
+        }
+        appendLine(sb, "License", firstLine(show.path("license").asText("")));
+        appendSection(sb, "Parameters", show.path("parameters").asText(""));
+        appendSection(sb, "Template", show.path("template").asText(""));
+        return sb.toString();
+    }
+
+    /**
+     * Formats the details of a model in the library.
+     */
+    static String formatLibraryDetails(LibraryModel model, LibraryModelDetail detail) {
+        StringBuilder sb = new StringBuilder();
+        appendLine(sb, "Model", model.getName());
+        appendLine(sb, "Description", model.getDescription());
+        appendLine(sb, "Pulls", model.getPullCount());
+        appendLine(sb, "Tags", String.valueOf(model.getTotalTags()));
+        if (model.getPopularTags() != null && !model.getPopularTags().isEmpty()) {
+            appendLine(sb, "Popular tags", String.join(", ", model.getPopularTags()));
+        }
+        if (detail != null && detail.getTags() != null && !detail.getTags().isEmpty()) {
+            sb.append("\n");
+            for (LibraryModelTag tag : detail.getTags()) {
+                sb.append(String.format("%-40s %10s  %s%n", tag.getName() + ":" + tag.getTag(), tag.getSize(),
+                        tag.getLastUpdated()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, String label, String value) {
+        if (value != null && !value.isBlank()) {
+            sb.append(label).append(": ").append(value.trim()).append('\n');
+        }
+    }
+
+    private static void appendSection(StringBuilder sb, String label, String value) {
+        if (value != null && !value.isBlank()) {
+            sb.append('\n').append(label).append(":\n").append(value.trim()).append('\n');
+        }
+    }
+
+    private static String firstLine(String text) {
+        int end = text.indexOf('\n');
+        return end < 0 ? text : text.substring(0, end);
+    }
+}
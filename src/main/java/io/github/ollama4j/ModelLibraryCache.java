@@ -0,0 +1,251 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.response.LibraryModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stale-while-revalidate cache for the Ollama model library listing.
+ * <p>
+ * The listing is persisted as a tab-separated file. {@link #load(Listener)} serves the cached copy first and, when it
+ * is missing or older than {@code maxAgeMillis}, fetches a fresh listing in the background. If the fetch fails the
+ * cached copy stays in use.
+ */
+class ModelLibraryCache {
+    private static final Logger logger = LoggerFactory.getLogger(ModelLibraryCache.class);
+    private static final String HEADER_PREFIX = "#ollama4j-ui-library v1 ";
+
+    interface Listener {
+        /**
+         * Called on the EDT with the cached listing and again with every freshly fetched one.
+         *
+         * @param fetchedAtMillis when the listing was fetched from the library
+         * @param fromCache       whether the listing was read from disk
+         */
+        void libraryLoaded(List<LibraryModel> models, long fetchedAtMillis, boolean fromCache);
+
+        /**
+         * Called on the EDT when fetching the listing failed.
+         *
+         * @param hasCachedCopy whether a cached listing was served before
+         */
+        void libraryFailed(Exception error, boolean hasCachedCopy);
+    }
+
+    private final File cacheFile;
+    private final Callable<List<LibraryModel>> fetcher;
+    private final long maxAgeMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-model-library");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ModelLibraryCache(File cacheFile, Callable<List<LibraryModel>> fetcher, long maxAgeMillis) {
+        this.cacheFile = cacheFile;
+        this.fetcher = fetcher;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Serves the cached listing and revalidates it in the background if it is stale.
+     */
+    public void load(Listener listener) {
+        executor.execute(() -> {
+            long fetchedAt = -1;
+            try {
+                if (cacheFile.exists()) {
+                    Snapshot cached = read();
+                    fetchedAt = cached.fetchedAtMillis;
+                    SwingUtilities.invokeLater(
+                            () -> listener.libraryLoaded(cached.models, cached.fetchedAtMillis, true));
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable model library cache {}: {}", cacheFile, e.getMessage());
+                fetchedAt = -1;
+            }
+            if (fetchedAt < 0 || System.currentTimeMillis() - fetchedAt >= maxAgeMillis) {
+                revalidate(listener, fetchedAt >= 0);
+            }
+        });
+    }
+
+    /**
+     * Fetches a fresh listing in the background regardless of the age of the cached one.
+     */
+    public void refresh(Listener listener) {
+        executor.execute(() -> revalidate(listener, cacheFile.exists()));
+    }
+
+    private void revalidate(Listener listener, boolean hasCachedCopy) {
+        try {
+            List<LibraryModel> fresh = fetcher.call();
+            long fetchedAt = System.currentTimeMillis();
+            try {
+                write(fresh, fetchedAt);
+            } catch (IOException e) {
+                logger.warn("Could not write model library cache {}: {}", cacheFile, e.getMessage());
+            }
+            List<LibraryModel> models = Collections.unmodifiableList(new ArrayList<>(fresh));
+            SwingUtilities.invokeLater(() -> listener.libraryLoaded(models, fetchedAt, false));
+        } catch (Exception e) {
+            logger.error("Error fetching model library: {}", e.getMessage());
+            SwingUtilities.invokeLater(() -> listener.libraryFailed(e, hasCachedCopy));
+        }
+    }
+
+    static class Snapshot {
+        final List<LibraryModel> models;
+        final long fetchedAtMillis;
+
+        private Snapshot(List<LibraryModel> models, long fetchedAtMillis) {
+            this.models = models;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    Snapshot read() throws IOException {
+        List<LibraryModel> models = new ArrayList<>();
+        long fetchedAtMillis;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER_PREFIX)) {
+                throw new IOException("Unexpected header");
+            }
+            fetchedAtMillis = Long.parseLong(header.substring(HEADER_PREFIX.length()).trim());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 6) {
+                    throw new IOException("Malformed line: " + line);
+                }
+                LibraryModel model = new LibraryModel();
+                model.setName(unescape(fields[0]));
+                model.setDescription(unescape(fields[1]));
+                model.setPullCount(unescape(fields[2]));
+                model.setTotalTags(fields[3].isEmpty() ? 0 : Integer.parseInt(fields[3]));
+                model.setLastUpdated(unescape(fields[4]));
+                List<String> tags = new ArrayList<>();
+                if (!fields[5].isEmpty()) {
+                    for (String tag : fields[5].split(",")) {
+                        tags.add(unescape(tag));
+                    }
+                }
+                model.setPopularTags(tags);
+                models.add(model);
+            }
+        }
+        return new Snapshot(Collections.unmodifiableList(models), fetchedAtMillis);
+    }
+
+    void write(List<LibraryModel> models, long fetchedAtMillis) throws IOException {
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile("model-library", ".tmp", parent);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(HEADER_PREFIX + fetchedAtMillis);
+                writer.newLine();
+                for (LibraryModel model : models) {
+                    writer.write(escape(model.getName()));
+                    writer.write('\t');
+                    writer.write(escape(model.getDescription()));
+                    writer.write('\t');
+                    writer.write(escape(model.getPullCount()));
+                    writer.write('\t');
+                    writer.write(Integer.toString(model.getTotalTags()));
+                    writer.write('\t');
+                    writer.write(escape(model.getLastUpdated()));
+                    writer.write('\t');
+                    List<String> tags = model.getPopularTags() == null ? List.of() : model.getPopularTags();
+                    for (int i = 0; i < tags.size(); i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(escape(tags.get(i)).replace(",", "\\c"));
+                    }
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'c':
+                        sb.append(',');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.utils.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * A named set of performance options that can be assigned to models.
+ * <p>
+ * Profiles are defined in the settings file as {@code profile.<name>.<option>=<value>} with the options
+ * {@code num_ctx}, {@code num_thread}, {@code num_batch}, {@code num_predict} and {@code keep_alive}, and assigned with
+ * {@code modelProfile.<model>=<name>}. Options a profile does not set are left to the global settings.
+ */
+class ModelProfile {
+    private static final Logger logger = LoggerFactory.getLogger(ModelProfile.class);
+    static final String PROFILE_PREFIX = "profile.";
+    static final String MODEL_PROFILE_PREFIX = "modelProfile.";
+    static final List<String> OPTIONS = List.of("num_ctx", "num_thread", "num_batch", "num_predict", "keep_alive");
+
+    private final String name;
+    private final Map<String, Integer> numericOptions;
+    private final String keepAlive;
+
+    private ModelProfile(String name, Map<String, Integer> numericOptions, String keepAlive) {
+        this.name = name;
+        this.numericOptions = numericOptions;
+        this.keepAlive = keepAlive;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The keep_alive of the profile, or {@code null} if it does not set one.
+     */
+    public String getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Sets the profile's model options on the builder, overriding the global ones.
+     */
+    public void apply(OptionsBuilder builder) {
+        numericOptions.forEach((option, value) -> {
+            switch (option) {
+                case "num_ctx":
+                    builder.setNumCtx(value);
+                    break;
+                case "num_thread":
+                    builder.setNumThread(value);
+                    break;
+                case "num_predict":
+                    builder.setNumPredict(value);
+                    break;
+                default:
+                    builder.setCustomOption(option, value);
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Reads the profiles defined in the settings, sorted by name.
+     */
+    static Map<String, ModelProfile> parseProfiles(Properties properties) {
+        Map<String, Map<String, Integer>> numericOptions = new TreeMap<>();
+        Map<String, String> keepAlives = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(PROFILE_PREFIX)) {
+                continue;
+            }
+            int optionStart = key.lastIndexOf('.');
+            String name = key.substring(PROFILE_PREFIX.length(), Math.max(PROFILE_PREFIX.length(), optionStart));
+            String option = key.substring(optionStart + 1);
+            String value = properties.getProperty(key).trim();
+            if (name.isEmpty() || !OPTIONS.contains(option)) {
+                logger.warn("Ignoring unknown profile setting {}", key);
+                continue;
+            }
+            Map<String, Integer> options = numericOptions.computeIfAbsent(name, n -> new LinkedHashMap<>());
+            if (option.equals("keep_alive")) {
+                String keepAlive = ModelWarmer.normalizeKeepAlive(value);
+                if (keepAlive == null) {
+                    logger.warn("Invalid value for profile setting {}: {}", key, value);
+                } else {
+                    keepAlives.put(name, keepAlive);
+                }
+                continue;
+            }
+            try {
+                options.put(option, Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for profile setting {}: {}", key, value);
+            }
+        }
+        Map<String, ModelProfile> profiles = new LinkedHashMap<>();
+        numericOptions.forEach((name, options) -> profiles.put(name, new ModelProfile(name,
+                Collections.unmodifiableMap(options), keepAlives.get(name))));
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Reads which profile each model uses.
+     */
+    static Map<String, String> parseAssignments(Properties properties) {
+        Map<String, String> assignments = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(MODEL_PROFILE_PREFIX) && !properties.getProperty(key).isBlank()) {
+                assignments.put(key.substring(MODEL_PROFILE_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+        return Collections.unmodifiableMap(assignments);
+    }
+}
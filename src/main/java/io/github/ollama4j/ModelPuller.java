@@ -0,0 +1,269 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads models from the Ollama library onto a server with {@code /api/pull}.
+ * <p>
+ * At most {@code maxConcurrent} pulls run at the same time, further pulls wait in line. The progress of a pull is
+ * streamed by the server as one line per chunk, which for a multi-GB model is far more often than it can be shown, so
+ * progress updates are coalesced and handed to the listener at most once per {@code updateIntervalMillis}. Changes of
+ * state (started, done, failed, cancelled) are always passed on right away.
+ */
+class ModelPuller {
+    private static final Logger logger = LoggerFactory.getLogger(ModelPuller.class);
+
+    enum State {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    interface Listener {
+        /**
+         * Called on the EDT when the progress or state of the pull changed.
+         */
+        void pullUpdated(Pull pull);
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int updateIntervalMillis;
+    // pulls that are queued or running, by host and model, so pulling the same model twice joins the first pull
+    private final Map<String, Pull> activePulls = new ConcurrentHashMap<>();
+
+    ModelPuller(int maxConcurrent, int updateIntervalMillis) {
+        int threads = Math.max(1, maxConcurrent);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ollama4j-pull-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.updateIntervalMillis = Math.max(0, updateIntervalMillis);
+    }
+
+    /**
+     * Queues a pull of {@code model} (e.g. {@code llama3.2:1b}) onto the server of {@code client}. If that model is
+     * already being pulled onto the server, the running pull is returned instead.
+     */
+    public Pull pull(OllamaRestClient client, String model, Listener listener) {
+        String key = client.getHost() + " " + model;
+        Pull pull = new Pull(client, model, listener);
+        Pull existing = activePulls.putIfAbsent(key, pull);
+        if (existing != null) {
+            return existing;
+        }
+        pull.result.whenComplete((ignored, error) -> activePulls.remove(key, pull));
+        pull.future = executor.submit(pull::run);
+        pull.notifyNow();
+        return pull;
+    }
+
+    class Pull {
+        private final OllamaRestClient client;
+        private final String model;
+        private final Listener listener;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final Timer updateTimer;
+        // digest -> {completed, total} of each layer, only touched by the pulling thread
+        private final Map<String, long[]> layers = new HashMap<>();
+        private volatile State state = State.QUEUED;
+        private volatile String status = "Waiting";
+        private volatile long completedBytes = 0;
+        private volatile long totalBytes = 0;
+        private volatile String error = null;
+        private volatile boolean cancelled = false;
+        private volatile Future<?> future;
+        private volatile Closeable stream;
+        private boolean updateScheduled = false;
+
+        private Pull(OllamaRestClient client, String model, Listener listener) {
+            this.client = client;
+            this.model = model;
+            this.listener = listener;
+            this.updateTimer = new Timer(updateIntervalMillis, e -> update());
+            this.updateTimer.setRepeats(false);
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getHost() {
+            return client.getHost();
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * The last status reported by the server, e.g. {@code pulling 6a0746a1ec1a}.
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        public long getCompletedBytes() {
+            return completedBytes;
+        }
+
+        /**
+         * The size of the layers seen so far, 0 until the server reports the first one.
+         */
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFinished() {
+            return state == State.DONE || state == State.FAILED || state == State.CANCELLED;
+        }
+
+        /**
+         * Completes when the model has been pulled, or exceptionally when the pull failed or was cancelled.
+         */
+        public CompletableFuture<Void> result() {
+            return result;
+        }
+
+        /**
+         * Drops the pull if it is still queued, or aborts the download by closing the response stream. The server
+         * keeps the layers downloaded so far, so pulling the model again resumes.
+         */
+        public void cancel() {
+            if (cancelled || isFinished()) {
+                return;
+            }
+            cancelled = true;
+            Future<?> queued = future;
+            if (queued != null) {
+                queued.cancel(false);
+            }
+            closeStream();
+            finish(State.CANCELLED, null);
+        }
+
+        private void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                state = State.RUNNING;
+                status = "Starting";
+            }
+            notifyNow();
+            try {
+                client.postStream("/api/pull", Map.of("model", model, "stream", true), opened -> {
+                    stream = opened;
+                    if (cancelled) {
+                        closeStream();
+                    }
+                }, this::progress);
+                if (!"success".equals(status)) {
+                    throw new IllegalStateException("The server stopped before the pull finished");
+                }
+                logger.info("Pulled {} onto {}", model, client.getHost());
+                finish(State.DONE, null);
+            } catch (Exception e) {
+                if (cancelled) {
+                    logger.info("Cancelled pulling {} onto {}", model, client.getHost());
+                } else {
+                    logger.warn("Could not pull {} onto {}: {}", model, client.getHost(), e.getMessage());
+                    finish(State.FAILED, e);
+                }
+            } finally {
+                closeStream();
+            }
+        }
+
+        private void closeStream() {
+            Closeable opened = stream;
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException e) {
+                    logger.debug("Could not close the pull stream: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void progress(JsonNode line) {
+            status = line.path("status").asText(status);
+            String digest = line.path("digest").asText("");
+            if (!digest.isEmpty() && line.has("total")) {
+                layers.put(digest, new long[] { line.path("completed").asLong(0), line.path("total").asLong(0) });
+                long completed = 0;
+                long total = 0;
+                for (long[] layer : layers.values()) {
+                    completed += layer[0];
+                    total += layer[1];
+                }
+                completedBytes = completed;
+                totalBytes = total;
+            }
+            scheduleUpdate();
+        }
+
+        private synchronized void finish(State finalState, Exception failure) {
+            if (isFinished()) {
+                return;
+            }
+            state = finalState;
+            if (finalState == State.DONE) {
+                completedBytes = totalBytes;
+                result.complete(null);
+            } else if (finalState == State.CANCELLED) {
+                status = "Cancelled";
+                result.completeExceptionally(new CancellationException("Pull cancelled"));
+            } else {
+                error = failure.getMessage();
+                status = "Failed";
+                result.completeExceptionally(failure);
+            }
+            notifyNow();
+        }
+
+        private void scheduleUpdate() {
+            synchronized (updateTimer) {
+                if (updateScheduled) {
+                    return;
+                }
+                updateScheduled = true;
+            }
+            updateTimer.restart();
+        }
+
+        private void notifyNow() {
+            SwingUtilities.invokeLater(this::update);
+        }
+
+        private void update() {
+            synchronized (updateTimer) {
+                // stopped before clearing the flag, so progress arriving right after this block restarts a live timer
+                updateTimer.stop();
+                updateScheduled = false;
+            }
+            listener.pullUpdated(this);
+        }
+    }
+}
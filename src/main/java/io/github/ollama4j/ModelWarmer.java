@@ -0,0 +1,295 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads models into the server's memory ahead of the first chat turn.
+ * <p>
+ * {@link #warmUp(String)} first asks the server ({@code /api/ps}) whether the model is loaded already, and otherwise
+ * sends an empty generate request with the configured {@code keep_alive}, which makes the server load the model and
+ * keep it loaded. The time the load took is measured. A model is considered cold again once it has not been used for
+ * the keep-alive duration, as the server unloads it then. The keep-alive is looked up per model on every use, so it
+ * follows the model's profile and changes to the settings.
+ * <p>
+ * The state is kept per server, as the server a model's turns go to can change (e.g. when a conversation moves to
+ * another host of the pool); a model that is warm on one server is cold on the next.
+ */
+class ModelWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(ModelWarmer.class);
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(10);
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    private static final Pattern DURATION = Pattern.compile("-?(?:\\d+(?:\\.\\d+)?(?:ms|h|m|s))+");
+    private static final Pattern SECONDS = Pattern.compile("-?\\d+(?:\\.\\d+)?");
+
+    enum State {
+        COLD("cold"),
+        LOADING("loading"),
+        WARM("warm"),
+        FAILED("failed");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    static class Status {
+        private final String model;
+        private final State state;
+        private final long loadMillis;
+        private final String error;
+
+        private Status(String model, State state, long loadMillis, String error) {
+            this.model = model;
+            this.state = state;
+            this.loadMillis = loadMillis;
+            this.error = error;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * How long loading the model took, 0 if it was loaded already and -1 if it has not been loaded.
+         */
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (state == State.WARM && loadMillis > 0) {
+                return state + " (loaded in " + String.format("%.1f", loadMillis / 1000.0) + " s)";
+            }
+            return state.toString();
+        }
+    }
+
+    interface Listener {
+        /**
+         * Called on the EDT whenever the status of a model changes.
+         */
+        void statusChanged(Status status);
+    }
+
+    private final Function<String, OllamaRestClient> clientForModel;
+    private final Function<String, String> keepAliveForModel;
+    // by server and model
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastUsedMillis = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-model-warmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param clientForModel    the server a model is loaded on, i.e. the one its next turn goes to
+     * @param keepAliveForModel the keep_alive sent to the server for a model (e.g. {@code 30m}), empty for the server
+     *                          default
+     */
+    ModelWarmer(Function<String, OllamaRestClient> clientForModel, Function<String, String> keepAliveForModel) {
+        this.clientForModel = clientForModel;
+        this.keepAliveForModel = keepAliveForModel;
+    }
+
+    private String key(OllamaRestClient client, String model) {
+        return client.getHost() + " " + model;
+    }
+
+    private String keepAlive(String model) {
+        String keepAlive = keepAliveForModel.apply(model);
+        return keepAlive == null ? "" : keepAlive.trim();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the status of a model on its server, which is cold if it has not been used within the keep-alive
+     * duration.
+     */
+    public Status getStatus(String model) {
+        return getStatus(key(clientForModel.apply(model), model), model);
+    }
+
+    private Status getStatus(String key, String model) {
+        Status status = statuses.get(key);
+        if (status == null) {
+            return new Status(model, State.COLD, -1, null);
+        }
+        Long lastUsed = lastUsedMillis.get(key);
+        long keepAliveMillis = parseKeepAliveMillis(keepAlive(model));
+        if (status.state == State.WARM && keepAliveMillis >= 0 && lastUsed != null
+                && System.currentTimeMillis() - lastUsed > keepAliveMillis) {
+            return new Status(model, State.COLD, -1, null);
+        }
+        return status;
+    }
+
+    /**
+     * Records that a chat turn used the model, which keeps it loaded for another keep-alive period.
+     */
+    public void markUsed(String model) {
+        String key = key(clientForModel.apply(model), model);
+        lastUsedMillis.put(key, System.currentTimeMillis());
+        Status status = statuses.get(key);
+        if (status == null || status.state != State.WARM) {
+            update(key, new Status(model, State.WARM, status != null ? status.loadMillis : -1, null));
+        }
+    }
+
+    /**
+     * Loads the model in the background unless it is loaded or being loaded already.
+     */
+    public void warmUp(String model) {
+        OllamaRestClient client = clientForModel.apply(model);
+        String key = key(client, model);
+        State current = getStatus(key, model).state;
+        if (current == State.LOADING || current == State.WARM) {
+            return;
+        }
+        update(key, new Status(model, State.LOADING, -1, null));
+        executor.execute(() -> {
+            try {
+                if (isLoaded(client, model)) {
+                    logger.info("Model {} is loaded on {} already", model, client.getHost());
+                    lastUsedMillis.put(key, System.currentTimeMillis());
+                    update(key, new Status(model, State.WARM, 0, null));
+                    return;
+                }
+                long startNanos = System.nanoTime();
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("model", model);
+                body.put("stream", false);
+                String keepAlive = keepAlive(model);
+                if (!keepAlive.isEmpty()) {
+                    body.put("keep_alive", keepAlive);
+                }
+                JsonNode response = client.post("/api/generate", body, LOAD_TIMEOUT);
+                long loadMillis = (System.nanoTime() - startNanos) / 1_000_000;
+                logger.info("Loaded model {} on {} in {} ms (server reported {} ms)", model, client.getHost(),
+                        loadMillis, response.path("load_duration").asLong(0) / 1_000_000);
+                lastUsedMillis.put(key, System.currentTimeMillis());
+                update(key, new Status(model, State.WARM, loadMillis, null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Could not load model {}: {}", model, e.getMessage());
+                update(key, new Status(model, State.FAILED, -1, e.getMessage()));
+            }
+        });
+    }
+
+    private boolean isLoaded(OllamaRestClient client, String model) {
+        try {
+            for (JsonNode loaded : client.get("/api/ps", Duration.ofSeconds(10)).path("models")) {
+                if (model.equals(loaded.path("name").asText()) || model.equals(loaded.path("model").asText())) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            // older servers have no /api/ps, just load the model
+            logger.debug("Could not list loaded models: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    private void update(String key, Status status) {
+        statuses.put(key, status);
+        SwingUtilities.invokeLater(() -> listeners.forEach(listener -> listener.statusChanged(status)));
+    }
+
+    /**
+     * Brings a keep_alive value into a form the server accepts as a JSON string. The server parses strings as Go
+     * durations, which need a unit, so a bare number of seconds gets one ({@code 300} becomes {@code 300s}). Returns
+     * an empty string for an empty value and {@code null} for a value the server would reject.
+     */
+    static String normalizeKeepAlive(String keepAlive) {
+        if (keepAlive == null || keepAlive.isBlank()) {
+            return "";
+        }
+        String value = keepAlive.trim();
+        if (SECONDS.matcher(value).matches()) {
+            return value + "s";
+        }
+        return DURATION.matcher(value).matches() ? value : null;
+    }
+
+    /**
+     * Parses a keep_alive value the way the server does: a number of seconds or a duration such as {@code 1h30m}.
+     * Returns -1 for values that keep the model loaded indefinitely (negative) and the server default (5 minutes) for
+     * an empty value.
+     */
+    static long parseKeepAliveMillis(String keepAlive) {
+        if (keepAlive == null || keepAlive.isBlank()) {
+            return Duration.ofMinutes(5).toMillis();
+        }
+        String value = keepAlive.trim();
+        if (value.startsWith("-")) {
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(value) * 1000);
+        } catch (NumberFormatException e) {
+            // a duration with units
+        }
+        Matcher matcher = DURATION_PART.matcher(value);
+        long millis = 0;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    millis += (long) (amount * 3_600_000);
+                    break;
+                case "m":
+                    millis += (long) (amount * 60_000);
+                    break;
+                case "s":
+                    millis += (long) (amount * 1000);
+                    break;
+                default:
+                    millis += (long) amount;
+            }
+            end = matcher.end();
+        }
+        if (end != value.length() || end == 0) {
+            logger.warn("Unrecognized keep_alive {}, assuming the model stays loaded", keepAlive);
+            return -1;
+        }
+        return millis;
+    }
+}
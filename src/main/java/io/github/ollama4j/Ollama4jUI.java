@@ -1,26 +1,34 @@
 package io.github.ollama4j;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 
 import io.github.ollama4j.exceptions.OllamaBaseException;
 import io.github.ollama4j.exceptions.ToolInvocationException;
 import io.github.ollama4j.models.chat.*;
 import io.github.ollama4j.models.generate.OllamaStreamHandler;
+import io.github.ollama4j.models.response.LibraryModel;
 import io.github.ollama4j.models.response.Model;
 import io.github.ollama4j.tools.OllamaToolsResult;
 import io.github.ollama4j.tools.ToolFunction;
 import io.github.ollama4j.tools.Tools;
+import io.github.ollama4j.utils.Options;
 import io.github.ollama4j.utils.OptionsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -32,12 +40,32 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @SuppressWarnings("ExtractMethodRecommender")
 public class Ollama4jUI {
@@ -52,12 +80,95 @@ public class Ollama4jUI {
     private static OllamaAPI ollamaAPI;
     private static String cacheDirectory = System.getProperty("user.home") + File.separator + "ollama4j-ui";
     private static String settingsFilePath = cacheDirectory + File.separator + "ollama4j-ui.properties";
-    private static final String defaultFileNameForChatExport = cacheDirectory + File.separator + "ollama4j-chat.txt";
-    private static JFrame frame = new JFrame(appTitle);
-    private static String temperature = "0.75";
-    private static String maxTokens = "2048";
+    private static final String defaultFileNameForChatExport = "ollama4j-chat";
+    // created with the GUI, so the class can also be loaded without a display
+    private static JFrame frame;
+    // the settings used when building requests are volatile, as they are reloaded while chats run
+    private static volatile String temperature = "0.75";
+    private static volatile String maxTokens = "2048";
+    // empty for a random seed
+    private static volatile String seed = "";
+    private static volatile Map<String, ModelProfile> modelProfiles = Map.of();
+    private static volatile Map<String, String> modelProfileAssignments = Map.of();
+    // the settings as last read from the file, including the ones without a field
+    private static Properties loadedSettings = new Properties();
+    private static final List<Runnable> settingsListeners = new CopyOnWriteArrayList<>();
     private static String openWeatherMapApiKey = "";
+    private static int streamFlushIntervalMillis = 40;
+    private static int streamMaxBacklogChars = 8192;
+    private static int maxConcurrentChats = 1;
+    private static int chatQueueCapacity = 16;
+    private static ChatRequestScheduler chatScheduler;
+    private static int modelCatalogTtlSeconds = 300;
+    private static ModelCatalog modelCatalog;
+    private static int modelLibraryMaxAgeMinutes = 24 * 60;
+    private static ModelLibraryCache modelLibraryCache;
+    private static int maxConcurrentPulls = 2;
+    private static ModelPuller modelPuller;
+    private static int contextTokenBudget = 4096;
+    private static ContextWindowManager contextWindowManager = new ContextWindowManager(contextTokenBudget);
+    private static boolean saveConversations = true;
+    private static ConversationStore conversationStore;
+    private static ToolRouter toolRouter;
+    private static String openWeatherMapBaseUrl = "https://api.openweathermap.org";
+    private static int toolTimeoutSeconds = 15;
+    private static int toolCacheTtlSeconds = 600;
+    private static ToolRuntime toolRuntime;
+    private static Properties toolTimeoutOverrides = new Properties();
+    private static int compareMaxConcurrent = 2;
+    private static ModelComparison modelComparison;
+    private static int metricsHistorySize = 500;
+    private static ChatMetrics chatMetrics;
+    private static String batchModel = null;
+    private static volatile String keepAlive = "30m";
+    private static boolean warmUpOnSelect = true;
+    // comma-separated; empty to use ollamaHost only
+    private static String ollamaHosts = "";
+    private static int hostProbeIntervalSeconds = 15;
+    private static OllamaHostPool hostPool;
+    // keeps the turns of the chat's conversation on the same host
+    private static final AtomicReference<String> chatRoutingKey = new AtomicReference<>(UUID.randomUUID().toString());
+    private static ModelWarmer modelWarmer;
+    private static final ChatExporter chatExporter = new ChatExporter();
+    private static boolean responseCacheEnabled = false;
+    private static int responseCacheMaxMegabytes = 64;
+    private static ResponseCache responseCache;
+    private static int batchParallelism = 2;
+    private static final String conversationsDirectoryPath = cacheDirectory + File.separator + "conversations";
+    private static final String responseCacheDirectoryPath = cacheDirectory + File.separator + "responses";
+    private static final String modelLibraryCacheFilePath = cacheDirectory + File.separator + "model-library.tsv";
     public static void main(String[] args) throws IOException {
+        boolean batch = args.length > 0 && args[0].equals("--batch");
+        loadConfiguration();
+        createServices();
+        if (batch) {
+            System.exit(runBatch(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        chatScheduler = new ChatRequestScheduler("ollama4j-chat", maxConcurrentChats, chatQueueCapacity);
+        chatMetrics = new ChatMetrics(metricsHistorySize);
+        modelComparison = new ModelComparison(contextWindowManager, compareMaxConcurrent, 64);
+        modelCatalog = new ModelCatalog(hostPool::listModels, modelCatalogTtlSeconds * 1000L);
+        modelCatalog.refresh();
+        modelWarmer = new ModelWarmer(model -> hostPool.peek(model, chatRoutingKey.get()).getRestClient(),
+                Ollama4jUI::keepAliveFor);
+        try {
+            new SettingsWatcher(new File(settingsFilePath), Ollama4jUI::reloadSettings).start();
+        } catch (IOException e) {
+            logger.warn("Could not watch the settings file, changes need a restart: {}", e.getMessage());
+        }
+        if (saveConversations) {
+            conversationStore = new ConversationStore(new File(conversationsDirectoryPath));
+        }
+        modelLibraryCache = new ModelLibraryCache(new File(modelLibraryCacheFilePath),
+                () -> ollamaAPI.listModelsFromLibrary(), modelLibraryMaxAgeMinutes * 60_000L);
+        modelPuller = new ModelPuller(maxConcurrentPulls, 250);
+        SwingUtilities.invokeLater(Ollama4jUI::createAndShowGUI);
+    }
+
+    /**
+     * Reads the settings file, writing one with the defaults first if it does not exist.
+     */
+    private static void loadConfiguration() throws IOException {
         File cacheDir = new File(cacheDirectory);
         if (!cacheDir.exists()) {
             cacheDir.mkdirs();
@@ -71,28 +182,258 @@ public class Ollama4jUI {
                 writer.write("temperature=0.75\n");
                 writer.write("maxTokens=2048\n");
                 writer.write("openWeatherMapApiKey=your-key-here\n");
+                writer.write("streamFlushIntervalMillis=" + streamFlushIntervalMillis + "\n");
+                writer.write("streamMaxBacklogChars=" + streamMaxBacklogChars + "\n");
+                writer.write("maxConcurrentChats=" + maxConcurrentChats + "\n");
+                writer.write("chatQueueCapacity=" + chatQueueCapacity + "\n");
+                writer.write("modelCatalogTtlSeconds=" + modelCatalogTtlSeconds + "\n");
+                writer.write("modelLibraryMaxAgeMinutes=" + modelLibraryMaxAgeMinutes + "\n");
+                writer.write("maxConcurrentPulls=" + maxConcurrentPulls + "\n");
+                writer.write("contextTokenBudget=" + contextTokenBudget + "\n");
+                writer.write("saveConversations=" + saveConversations + "\n");
+                writer.write("openWeatherMapBaseUrl=" + openWeatherMapBaseUrl + "\n");
+                writer.write("toolTimeoutSeconds=" + toolTimeoutSeconds + "\n");
+                writer.write("toolCacheTtlSeconds=" + toolCacheTtlSeconds + "\n");
+                writer.write("compareMaxConcurrent=" + compareMaxConcurrent + "\n");
+                writer.write("metricsHistorySize=" + metricsHistorySize + "\n");
+                writer.write("batchParallelism=" + batchParallelism + "\n");
+                writer.write("keepAlive=" + keepAlive + "\n");
+                writer.write("warmUpOnSelect=" + warmUpOnSelect + "\n");
+                writer.write("seed=" + seed + "\n");
+                writer.write("responseCache=" + responseCacheEnabled + "\n");
+                writer.write("responseCacheMaxMegabytes=" + responseCacheMaxMegabytes + "\n");
+                writer.write("ollamaHosts=" + ollamaHosts + "\n");
+                writer.write("hostProbeIntervalSeconds=" + hostProbeIntervalSeconds + "\n");
             }
-        } else {
-            Properties properties = new Properties();
-            properties.load(new FileReader(settingsFile));
-            ollamaHost = properties.getProperty("ollamaHost");
-            temperature = properties.getProperty("temperature");
-            maxTokens = properties.getProperty("maxTokens");
-            openWeatherMapApiKey = properties.getProperty("openWeatherMapApiKey");
-        }
-        // write default settings to file
-        ollamaAPI = new OllamaAPI(ollamaHost);
-        ollamaAPI.setRequestTimeoutSeconds(60);
-        SwingUtilities.invokeLater(Ollama4jUI::createAndShowGUI);
+        }
+        Properties properties = new Properties();
+        try (FileReader reader = new FileReader(settingsFile)) {
+            properties.load(reader);
+        }
+        loadSettings(properties);
+    }
+
+    /**
+     * Reads the settings file again after it changed. Settings that are read per request (generation options, keep
+     * alive, model profiles, the context budget) apply to the next request; the others need a restart.
+     */
+    private static void reloadSettings() {
+        Properties properties = new Properties();
+        try (FileReader reader = new FileReader(settingsFilePath)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.warn("Could not reload settings: {}", e.getMessage());
+            return;
+        }
+        loadSettings(properties);
+        settingsListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Writes changed settings to the settings file, keeping the other lines as they are. A {@code null} value removes
+     * the setting.
+     */
+    private static void saveSettings(Map<String, String> changes) throws IOException {
+        File settingsFile = new File(settingsFilePath);
+        List<String> lines = settingsFile.exists()
+                ? Files.readAllLines(settingsFile.toPath(), StandardCharsets.ISO_8859_1)
+                : new ArrayList<>();
+        Map<String, String> pending = new HashMap<>(changes);
+        List<String> updated = new ArrayList<>();
+        for (String line : lines) {
+            String key = pending.keySet().stream()
+                    .filter(k -> line.stripLeading().matches(Pattern.quote(escapeSettingKey(k)) + "\\s*[=:\\s].*"))
+                    .findFirst().orElse(null);
+            if (key == null) {
+                updated.add(line);
+            } else if (pending.get(key) != null) {
+                updated.add(escapeSettingKey(key) + "=" + escapeSettingValue(pending.remove(key)));
+            } else {
+                pending.remove(key);
+            }
+        }
+        pending.forEach((key, value) -> {
+            if (value != null) {
+                updated.add(escapeSettingKey(key) + "=" + escapeSettingValue(value));
+            }
+        });
+        File tempFile = File.createTempFile("ollama4j-ui", ".properties", settingsFile.getAbsoluteFile()
+                .getParentFile());
+        Files.write(tempFile.toPath(), updated, StandardCharsets.ISO_8859_1);
+        Files.move(tempFile.toPath(), settingsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String escapeSettingKey(String key) {
+        return key.replace("\\", "\\\\").replace(":", "\\:").replace("=", "\\=").replace(" ", "\\ ");
+    }
+
+    private static String escapeSettingValue(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.replace("\\", "\\\\").toCharArray()) {
+            // ASCII only, so the file reads the same whatever the default charset
+            escaped.append(c > 0x7e ? String.format("\\u%04x", (int) c) : String.valueOf(c));
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Creates the API client and the tool wiring shared by the GUI and the batch mode.
+     */
+    private static void createServices() {
+        List<String> hostUrls = new ArrayList<>();
+        for (String url : ollamaHosts.split(",")) {
+            if (!url.isBlank()) {
+                hostUrls.add(url.trim());
+            }
+        }
+        if (hostUrls.isEmpty()) {
+            hostUrls.add(ollamaHost);
+        }
+        hostPool = new OllamaHostPool(hostUrls, 60);
+        hostPool.start(hostProbeIntervalSeconds);
+        // everything that is not routed per turn talks to the first host
+        ollamaAPI = hostPool.getPrimary().getApi();
+        toolRuntime = new ToolRuntime(toolTimeoutSeconds * 1000L, toolCacheTtlSeconds * 1000L);
+        toolTimeoutOverrides.stringPropertyNames().forEach(tool -> toolRuntime.setToolTimeout(tool,
+                getIntSetting(toolTimeoutOverrides, tool, toolTimeoutSeconds) * 1000L));
+        toolRouter = new ToolRouter(List.of(getWeatherToolSpec(openWeatherMapApiKey)));
+        if (responseCacheEnabled) {
+            responseCache = new ResponseCache(new File(responseCacheDirectoryPath),
+                    responseCacheMaxMegabytes * 1024L * 1024L);
+        }
+    }
+
+    /**
+     * Runs the batch mode. Returns the process exit code: 0 if every prompt succeeded, 1 if any failed and 2 for
+     * invalid arguments.
+     */
+    private static int runBatch(String[] args) {
+        BatchRunner.Options options;
+        try {
+            options = BatchRunner.Options.parse(args, batchModel, batchParallelism);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(BatchRunner.USAGE);
+            return 2;
+        }
+        try {
+            OllamaStreamingChat chat = new OllamaStreamingChat();
+            chat.setHostPool(hostPool);
+            int failed = new BatchRunner(ollamaAPI, chat, contextWindowManager, options).run(System.err);
+            if (responseCache != null) {
+                System.err.println("  " + responseCache.describe());
+            }
+            return failed > 0 ? 1 : 0;
+        } catch (IOException e) {
+            logger.error("Batch failed: {}", e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private static void loadSettings(Properties properties) {
+        ollamaHost = properties.getProperty("ollamaHost");
+        temperature = properties.getProperty("temperature");
+        maxTokens = properties.getProperty("maxTokens");
+        openWeatherMapApiKey = properties.getProperty("openWeatherMapApiKey");
+        streamFlushIntervalMillis = getIntSetting(properties, "streamFlushIntervalMillis", streamFlushIntervalMillis);
+        streamMaxBacklogChars = getIntSetting(properties, "streamMaxBacklogChars", streamMaxBacklogChars);
+        maxConcurrentChats = getIntSetting(properties, "maxConcurrentChats", maxConcurrentChats);
+        chatQueueCapacity = getIntSetting(properties, "chatQueueCapacity", chatQueueCapacity);
+        modelCatalogTtlSeconds = getIntSetting(properties, "modelCatalogTtlSeconds", modelCatalogTtlSeconds);
+        modelLibraryMaxAgeMinutes = getIntSetting(properties, "modelLibraryMaxAgeMinutes", modelLibraryMaxAgeMinutes);
+        maxConcurrentPulls = getIntSetting(properties, "maxConcurrentPulls", maxConcurrentPulls);
+        contextTokenBudget = getIntSetting(properties, "contextTokenBudget", contextTokenBudget);
+        contextWindowManager.setTokenBudget(contextTokenBudget);
+        saveConversations = Boolean.parseBoolean(properties.getProperty("saveConversations", "true").trim());
+        openWeatherMapBaseUrl = properties.getProperty("openWeatherMapBaseUrl", openWeatherMapBaseUrl).trim();
+        toolTimeoutSeconds = getIntSetting(properties, "toolTimeoutSeconds", toolTimeoutSeconds);
+        toolCacheTtlSeconds = getIntSetting(properties, "toolCacheTtlSeconds", toolCacheTtlSeconds);
+        compareMaxConcurrent = getIntSetting(properties, "compareMaxConcurrent", compareMaxConcurrent);
+        metricsHistorySize = getIntSetting(properties, "metricsHistorySize", metricsHistorySize);
+        batchModel = properties.getProperty("batchModel", batchModel);
+        batchParallelism = getIntSetting(properties, "batchParallelism", batchParallelism);
+        keepAlive = getKeepAliveSetting(properties, "keepAlive", keepAlive);
+        warmUpOnSelect = Boolean.parseBoolean(properties.getProperty("warmUpOnSelect", "true").trim());
+        seed = properties.getProperty("seed", seed).trim();
+        responseCacheEnabled = Boolean.parseBoolean(properties.getProperty("responseCache", "false").trim());
+        responseCacheMaxMegabytes = getIntSetting(properties, "responseCacheMaxMegabytes", responseCacheMaxMegabytes);
+        ollamaHosts = properties.getProperty("ollamaHosts", ollamaHosts).trim();
+        hostProbeIntervalSeconds = getIntSetting(properties, "hostProbeIntervalSeconds", hostProbeIntervalSeconds);
+        modelProfiles = ModelProfile.parseProfiles(properties);
+        modelProfileAssignments = ModelProfile.parseAssignments(properties);
+        loadedSettings = properties;
+        // per-tool overrides, e.g. toolTimeoutSeconds.weather-reporter=5
+        toolTimeoutOverrides = new Properties();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("toolTimeoutSeconds.")) {
+                toolTimeoutOverrides.setProperty(key.substring("toolTimeoutSeconds.".length()),
+                        properties.getProperty(key));
+            }
+        }
+    }
+
+    /**
+     * The profile assigned to the model, or {@code null}.
+     */
+    static ModelProfile profileFor(String model) {
+        String name = model == null ? null : modelProfileAssignments.get(model);
+        ModelProfile profile = name == null ? null : modelProfiles.get(name);
+        if (name != null && profile == null) {
+            logger.debug("Model {} uses the undefined profile {}", model, name);
+        }
+        return profile;
+    }
+
+    /**
+     * The keep_alive for the model: its profile's, or else the global one. Empty for the server default.
+     */
+    static String keepAliveFor(String model) {
+        ModelProfile profile = profileFor(model);
+        String value = profile != null && profile.getKeepAlive() != null ? profile.getKeepAlive() : keepAlive;
+        return value == null ? "" : value.trim();
+    }
+
+    private static int getIntSetting(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value for setting {}: {}. Using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static String getKeepAliveSetting(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        String normalized = ModelWarmer.normalizeKeepAlive(value);
+        if (normalized == null) {
+            logger.warn("Invalid value for setting {}: {}. Using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+        return normalized;
     }
 
     private static JPanel getChatPanel() {
         JPanel chatPanel = new JPanel(new BorderLayout());
 
-        JTextArea chatHistory = new JTextArea();
-        chatHistory.setEditable(false);
-        chatHistory.setLineWrap(true);
-        chatHistory.setWrapStyleWord(true);
+        ChatTranscriptView chatHistory = new ChatTranscriptView();
+        // the stored session the current history is journaled to, created with the first completed turn
+        AtomicReference<ConversationStore.SessionInfo> currentSession = new AtomicReference<>();
+        AtomicInteger storedMessageCount = new AtomicInteger();
+        Runnable startNewSession = () -> {
+            currentSession.set(null);
+            storedMessageCount.set(0);
+            hostPool.endSession(chatRoutingKey.getAndSet(UUID.randomUUID().toString()));
+        };
         JScrollPane chatScrollPane = new JScrollPane(chatHistory);
         chatScrollPane.setPreferredSize(new Dimension(600, 300));
 
@@ -102,37 +443,177 @@ public class Ollama4jUI {
         JButton sendButton = new JButton("➤");
         JButton clearButton = new JButton("❌");
         JButton exportButton = new JButton("📤");
+        JButton historyButton = new JButton("🕘");
+        JButton stopButton = new JButton("⏹");
         sendButton.setToolTipText("Send");
+        stopButton.setToolTipText("Stop");
+        stopButton.setEnabled(false);
         clearButton.setToolTipText("Clear");
         exportButton.setToolTipText("Export");
+        historyButton.setToolTipText("Saved Conversations");
 
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(sendButton);
+        buttonPanel.add(stopButton);
         buttonPanel.add(clearButton);
         buttonPanel.add(exportButton);
+        buttonPanel.add(historyButton);
 
         DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
-        model.addElement("Select Model");
-        String[] modelsList;
-        try {
-            ollamaAPI.listModels().stream().map(Model::getName).forEach(model::addElement);
-            modelsList = ollamaAPI.listModels().stream().map(Model::getName).toArray(String[]::new);
-        } catch (OllamaBaseException | IOException | URISyntaxException | InterruptedException e) {
-            modelsList = new String[] { "No Models Available" };
-            logger.error("Error fetching models: {}", e.getMessage());
-            model.addElement("No Models Available");
-        }
+        model.addElement("Loading Models...");
 
         JComboBox<String> modelDropdown = new JComboBox<>(model);
         modelDropdown.setPreferredSize(new Dimension(100, 30));
         modelDropdown.setToolTipText("Select a model");
         modelDropdown.setSelectedIndex(0);
+        modelDropdown.setEnabled(false);
 
-        if (modelsList.length > 0 && !modelsList[0].equals("No Models")) {
-            // modelDropdown.setSelectedIndex(-1);
-        } else {
-            modelDropdown.setEnabled(false);
-        }
+        JLabel warmLabel = new JLabel();
+        warmLabel.setToolTipText("Whether the selected model is loaded on the server");
+        Runnable showWarmStatus = () -> {
+            if (selectedModel == null) {
+                warmLabel.setText("");
+                return;
+            }
+            ModelWarmer.Status status = modelWarmer.getStatus(selectedModel);
+            warmLabel.setText(" ● " + status + " ");
+            warmLabel.setToolTipText(status.getError() != null
+                    ? "Loading failed: " + status.getError()
+                    : "Model load state, keep_alive " + (keepAliveFor(selectedModel).isEmpty() ? "server default"
+                            : keepAliveFor(selectedModel)));
+        };
+        modelWarmer.addListener(status -> {
+            if (status.getModel().equals(selectedModel)) {
+                showWarmStatus.run();
+            }
+        });
+        // the server unloads idle models after keep_alive, so the state can change without any event
+        new Timer(30_000, e -> showWarmStatus.run()).start();
+
+        String noProfile = "No Profile";
+        JComboBox<String> profileDropdown = new JComboBox<>();
+        profileDropdown.setToolTipText("Performance profile of the selected model (profile.<name>.* settings)");
+        // set while the dropdown is refilled so the selection listener does not save it
+        AtomicBoolean updatingProfiles = new AtomicBoolean(false);
+        Runnable showProfile = () -> {
+            updatingProfiles.set(true);
+            try {
+                profileDropdown.removeAllItems();
+                profileDropdown.addItem(noProfile);
+                modelProfiles.keySet().forEach(profileDropdown::addItem);
+                String assigned = selectedModel != null ? modelProfileAssignments.get(selectedModel) : null;
+                if (assigned != null && !modelProfiles.containsKey(assigned)) {
+                    profileDropdown.addItem(assigned);
+                }
+                profileDropdown.setSelectedItem(assigned != null ? assigned : noProfile);
+                profileDropdown.setEnabled(selectedModel != null && !modelProfiles.isEmpty());
+            } finally {
+                updatingProfiles.set(false);
+            }
+        };
+        showProfile.run();
+        settingsListeners.add(() -> {
+            showProfile.run();
+            showWarmStatus.run();
+        });
+        profileDropdown.addItemListener(e -> {
+            if (e.getStateChange() != ItemEvent.SELECTED || updatingProfiles.get() || selectedModel == null) {
+                return;
+            }
+            String profile = (String) e.getItem();
+            String key = ModelProfile.MODEL_PROFILE_PREFIX + selectedModel;
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    saveSettings(Collections.singletonMap(key, profile.equals(noProfile) ? null : profile));
+                    reloadSettings();
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(frame, "Error saving settings: " + ex.getMessage());
+                    showProfile.run();
+                }
+            });
+        });
+
+        // the host the selected model was last warmed up on, so it is warmed up again when the chat moves elsewhere
+        AtomicReference<String> warmedHost = new AtomicReference<>();
+        Runnable warmUpSelected = () -> {
+            if (warmUpOnSelect && selectedModel != null) {
+                warmedHost.set(hostPool.peek(selectedModel, chatRoutingKey.get()).getUrl());
+                modelWarmer.warmUp(selectedModel);
+            }
+        };
+        hostPool.addListener(() -> {
+            if (warmedHost.get() != null && selectedModel != null
+                    && !hostPool.peek(selectedModel, chatRoutingKey.get()).getUrl().equals(warmedHost.get())) {
+                warmUpSelected.run();
+            }
+            showWarmStatus.run();
+        });
+
+        Runnable modelSelected = () -> {
+            warmUpSelected.run();
+            showWarmStatus.run();
+            showProfile.run();
+        };
+
+        JButton refreshModelsButton = new JButton("🔄");
+        refreshModelsButton.setToolTipText("Refresh Models");
+        refreshModelsButton.addActionListener(e -> modelCatalog.refresh());
+
+        // set while the dropdown is repopulated so the selection listener does not treat it as a user selection
+        AtomicBoolean updatingModels = new AtomicBoolean(false);
+        modelCatalog.addListener(new ModelCatalog.Listener() {
+            @Override
+            public void modelsLoaded(List<Model> models) {
+                updatingModels.set(true);
+                try {
+                    model.removeAllElements();
+                    if (models.isEmpty()) {
+                        model.addElement("No Models Available");
+                        modelDropdown.setEnabled(false);
+                        return;
+                    }
+                    model.addElement("Select Model");
+                    models.stream().map(Model::getName).forEach(model::addElement);
+                    if (selectedModel != null) {
+                        if (model.getIndexOf(selectedModel) < 0) {
+                            model.addElement(selectedModel);
+                        }
+                        model.setSelectedItem(selectedModel);
+                    }
+                    modelDropdown.setEnabled(true);
+                } finally {
+                    updatingModels.set(false);
+                }
+            }
+
+            @Override
+            public void modelsFailed(Exception error) {
+                if (!modelCatalog.isLoaded()) {
+                    updatingModels.set(true);
+                    try {
+                        model.removeAllElements();
+                        model.addElement("No Models Available");
+                        modelDropdown.setEnabled(false);
+                    } finally {
+                        updatingModels.set(false);
+                    }
+                }
+            }
+        });
+        modelDropdown.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                modelCatalog.refreshIfStale();
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
+        });
         JCheckBox useToolsCheckbox = new JCheckBox("Use Tools");
         useToolsCheckbox.setSelected(true);
         useToolsCheckbox
@@ -149,10 +630,12 @@ public class Ollama4jUI {
         });
 
         modelDropdown.addItemListener(e -> {
-            if (e.getStateChange() == ItemEvent.SELECTED) {
+            if (e.getStateChange() == ItemEvent.SELECTED && !updatingModels.get()) {
                 String newModel = (String) e.getItem();
                 if (newModel.equals("Select Model")) {
                     selectedModel = null;
+                    showWarmStatus.run();
+                    showProfile.run();
                     return;
                 }
                 int confirm = JOptionPane.showConfirmDialog(frame,
@@ -161,11 +644,13 @@ public class Ollama4jUI {
                 if (confirm == JOptionPane.YES_OPTION) {
                     selectedModel = newModel;
                     logger.info("Selected model: {}", newModel);
-                    chatHistory.setText("");
                     history.clear();
+                    chatHistory.clear();
+                    startNewSession.run();
                     chatInputPanel.setEnabled(true);
                     chatInputField.setEditable(true);
                     modelDropdown.setToolTipText(selectedModel);
+                    modelSelected.run();
                 } else {
                     modelDropdown.setSelectedItem(selectedModel);
                 }
@@ -174,13 +659,24 @@ public class Ollama4jUI {
 
         Dimension buttonSize = new Dimension(30, 30);
         sendButton.setPreferredSize(buttonSize);
+        stopButton.setPreferredSize(buttonSize);
         clearButton.setPreferredSize(buttonSize);
         exportButton.setPreferredSize(buttonSize);
+        historyButton.setPreferredSize(buttonSize);
 
         JPanel modelSelectionAndToolsPanel = new JPanel();
         modelSelectionAndToolsPanel.setLayout(new BoxLayout(modelSelectionAndToolsPanel, BoxLayout.X_AXIS));
         modelSelectionAndToolsPanel.add(modelDropdown);
+        modelSelectionAndToolsPanel.add(refreshModelsButton);
+        modelSelectionAndToolsPanel.add(warmLabel);
+        modelSelectionAndToolsPanel.add(profileDropdown);
         modelSelectionAndToolsPanel.add(useToolsCheckbox);
+        JLabel contextLabel = new JLabel();
+        contextLabel.setToolTipText("Estimated tokens sent with the last request");
+        modelSelectionAndToolsPanel.add(Box.createHorizontalGlue());
+        modelSelectionAndToolsPanel.add(contextLabel);
+        JLabel routeLabel = new JLabel();
+        modelSelectionAndToolsPanel.add(routeLabel);
 
         JPanel inputAndButtonsPanel = new JPanel(new BorderLayout());
         inputAndButtonsPanel.add(chatInputField, BorderLayout.CENTER);
@@ -193,22 +689,52 @@ public class Ollama4jUI {
         chatPanel.add(chatInputPanel, BorderLayout.SOUTH);
 
         OllamaStreamingChat ollamaChat = new OllamaStreamingChat();
+        ollamaChat.setHostPool(hostPool);
+        ollamaChat.setSessionKeySupplier(chatRoutingKey::get);
+        ollamaChat.setContextWindowListener(window -> SwingUtilities.invokeLater(() -> contextLabel.setText(
+                "~" + window.getEstimatedTokens() + "/" + contextWindowManager.getTokenBudget() + " tokens"
+                        + (window.getDroppedMessages() > 0 ? ", " + window.getDroppedMessages() + " older dropped" : "")
+                        + " ")));
+        ollamaChat.setRouteListener(report -> SwingUtilities.invokeLater(() -> {
+            routeLabel.setText(report + " ");
+            routeLabel.setToolTipText("Routing decision took " + report.getRoutingNanos() / 1000 + " µs");
+        }));
+        StreamingTextRenderer chatRenderer = new StreamingTextRenderer(chatHistory::appendToLastEntry,
+                streamFlushIntervalMillis, streamMaxBacklogChars);
+        AtomicReference<ChatRequestScheduler.ChatRequest<List<OllamaChatMessage>>> activeRequest = new AtomicReference<>();
+        AtomicReference<ChatMetrics.Turn> activeTurn = new AtomicReference<>();
+        chatRenderer.setRenderLagListener(lagNanos -> {
+            ChatMetrics.Turn turn = activeTurn.get();
+            if (turn != null) {
+                turn.renderLag(lagNanos);
+            }
+        });
+        stopButton.addActionListener(e -> {
+            ChatRequestScheduler.ChatRequest<List<OllamaChatMessage>> request = activeRequest.get();
+            if (request != null) {
+                stopButton.setEnabled(false);
+                request.cancel();
+            }
+        });
         ActionListener sendMessage = e -> {
             String message = chatInputField.getText().trim();
             if (!message.isEmpty()) {
-                chatHistory.append("You: " + message + "\n");
+                long sentAtMillis = System.currentTimeMillis();
+                chatHistory.addEntry("You", message);
                 isChatInProgress = true;
                 sendButton.setText("⌛");
                 sendButton.setEnabled(false);
                 chatInputField.setEditable(false);
                 clearButton.setEnabled(false);
                 exportButton.setEnabled(false);
+                historyButton.setEnabled(false);
 
                 if (selectedModel == null) {
                     JOptionPane.showMessageDialog(frame, "Please select a model first.", "Error",
                             JOptionPane.ERROR_MESSAGE);
-                    chatHistory.setText("");
                     history.clear();
+                    chatHistory.clear();
+                    startNewSession.run();
                     sendButton.setText("➤");
                     sendButton.setEnabled(true);
                     chatInputField.setText("");
@@ -217,36 +743,80 @@ public class Ollama4jUI {
                     return;
                 }
 
-                new Thread(() -> {
-                    StringBuilder responseBuffer = new StringBuilder();
-                    try {
-                        String botLabel = "AI: ";
-                        CustomStreamHandler streamHandlerCustom = new CustomStreamHandler(chatHistory, responseBuffer,
-                                botLabel);
-                        OllamaStreamHandler streamHandler = chunk -> SwingUtilities
-                                .invokeLater(() -> streamHandlerCustom.accept(chunk));
-                        if (useTools) {
-                            history = ollamaChat.chatWithTools(message, history, ollamaAPI, selectedModel,
-                                    streamHandler);
+                chatHistory.addEntry("AI", "");
+                String turnModel = selectedModel;
+                boolean tools = useTools;
+                List<OllamaChatMessage> turnHistory = new ArrayList<>(history);
+                ChatMetrics.Turn metricsTurn = chatMetrics.startTurn(turnModel);
+                activeTurn.set(metricsTurn);
+                Runnable finishTurn = () -> {
+                    chatRenderer.flush();
+                    activeRequest.set(null);
+                    activeTurn.set(null);
+                    sendButton.setText("➤");
+                    sendButton.setEnabled(true);
+                    stopButton.setEnabled(false);
+                    isChatInProgress = false;
+                    chatInputField.setEditable(true);
+                    clearButton.setEnabled(true);
+                    exportButton.setEnabled(true);
+                    historyButton.setEnabled(true);
+                };
+                ChatRequestScheduler.ChatRequest<List<OllamaChatMessage>> request;
+                try {
+                    OllamaStreamHandler renderHandler = new CustomStreamHandler(chatRenderer);
+                    request = chatScheduler.submit(streamHandler -> ollamaChat.send(message, turnHistory,
+                            ollamaAPI, turnModel, streamHandler, tools, metricsTurn), chunk -> {
+                                metricsTurn.chunkReceived();
+                                renderHandler.accept(chunk);
+                            });
+                } catch (RejectedExecutionException ex) {
+                    chatHistory.appendToLastEntry("[Error] Too many chat requests queued, please retry later.");
+                    finishTurn.run();
+                    metricsTurn.finish(0, true);
+                    return;
+                }
+                activeRequest.set(request);
+                stopButton.setEnabled(true);
+                request.result().whenComplete((newHistory, error) -> SwingUtilities.invokeLater(() -> {
+                    chatRenderer.flush();
+                    OllamaChatMessage reply = error == null && !newHistory.isEmpty()
+                            ? newHistory.get(newHistory.size() - 1)
+                            : null;
+                    metricsTurn.finish(reply != null ? contextWindowManager.estimateTokens(reply.getContent()) : 0,
+                            error != null);
+                    if (error == null) {
+                        history = newHistory;
+                        modelWarmer.markUsed(turnModel);
+                        chatHistory.setMessages(history);
+                        if (conversationStore != null) {
+                            ConversationStore.SessionInfo session = currentSession.get();
+                            if (session == null) {
+                                session = conversationStore.newSession(turnModel, message);
+                                currentSession.set(session);
+                            }
+                            int stored = Math.min(storedMessageCount.get(), history.size());
+                            conversationStore.append(session, history.subList(stored, history.size()),
+                                    sentAtMillis);
+                            storedMessageCount.set(history.size());
+                        }
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        if (cause instanceof CancellationException) {
+                            logger.info("Chat request stopped by user");
+                            chatHistory.appendToLastEntry("\n[Stopped]");
+                        } else if (cause instanceof ToolInvocationException) {
+                            logger.error("Tool invocation failed", cause);
+                            chatHistory.appendToLastEntry("\n[Error] Tool invocation failed: " + cause.getMessage());
                         } else {
-                            history = ollamaChat.chat(message, history, ollamaAPI, selectedModel, streamHandler);
+                            logger.error("Chat request failed", cause);
+                            chatHistory.appendToLastEntry("\n[Error] " + cause.getMessage());
                         }
-                    } catch (OllamaBaseException | IOException | InterruptedException ex) {
-                        SwingUtilities.invokeLater(() -> chatHistory.append("\n[Error] " + ex.getMessage() + "\n"));
-                    } catch (ToolInvocationException ex) {
-                        throw new RuntimeException(ex);
-                    } finally {
-                        SwingUtilities.invokeLater(() -> {
-                            sendButton.setText("➤");
-                            sendButton.setEnabled(true);
-                            isChatInProgress = false;
-                            chatInputField.setEditable(true);
-                            clearButton.setEnabled(true);
-                            exportButton.setEnabled(true);
-                            chatHistory.append("\n------\n");
-                        });
                     }
-                }).start();
+                    finishTurn.run();
+                }));
                 chatInputField.setText("");
             }
         };
@@ -265,102 +835,771 @@ public class Ollama4jUI {
             int confirm = JOptionPane.showConfirmDialog(frame, "Are you sure you want to clear the chat?",
                     "Confirm Clear", JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
-                chatHistory.setText("");
                 history.clear();
+                chatHistory.clear();
+                startNewSession.run();
+            }
+        });
+
+        historyButton.addActionListener(e -> {
+            if (conversationStore == null) {
+                JOptionPane.showMessageDialog(frame, "Saving conversations is disabled in the settings.");
+                return;
             }
+            conversationStore.listSessions().whenComplete((sessions, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(frame, "Error loading conversations: " + error.getMessage());
+                    return;
+                }
+                if (sessions.isEmpty()) {
+                    JOptionPane.showMessageDialog(frame, "No saved conversations yet.");
+                    return;
+                }
+                JList<ConversationStore.SessionInfo> sessionList = new JList<>(
+                        sessions.toArray(new ConversationStore.SessionInfo[0]));
+                sessionList.setSelectedIndex(0);
+                JScrollPane sessionScrollPane = new JScrollPane(sessionList);
+                sessionScrollPane.setPreferredSize(new Dimension(500, 300));
+                int choice = JOptionPane.showConfirmDialog(frame, sessionScrollPane, "Open Conversation",
+                        JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+                ConversationStore.SessionInfo session = sessionList.getSelectedValue();
+                if (choice != JOptionPane.OK_OPTION || session == null || isChatInProgress) {
+                    return;
+                }
+                conversationStore.loadMessages(session).whenComplete((messages, loadError) -> SwingUtilities
+                        .invokeLater(() -> {
+                            if (loadError != null) {
+                                JOptionPane.showMessageDialog(frame,
+                                        "Error loading conversation: " + loadError.getMessage());
+                                return;
+                            }
+                            history = new ArrayList<>(messages);
+                            chatHistory.setMessages(history);
+                            currentSession.set(session);
+                            storedMessageCount.set(history.size());
+                            if (model.getIndexOf(session.getModel()) >= 0) {
+                                updatingModels.set(true);
+                                try {
+                                    model.setSelectedItem(session.getModel());
+                                } finally {
+                                    updatingModels.set(false);
+                                }
+                                selectedModel = session.getModel();
+                                modelDropdown.setToolTipText(selectedModel);
+                                modelSelected.run();
+                            }
+                        }));
+            }));
         });
 
         exportButton.addActionListener(e -> {
+            JComboBox<ChatExporter.Format> formatDropdown = new JComboBox<>(ChatExporter.Format.values());
+            JCheckBox gzipCheckBox = new JCheckBox("Compress (gzip)");
+            JComboBox<String> scopeDropdown = new JComboBox<>(new String[] { "This chat",
+                    "All saved conversations" });
+            scopeDropdown.setEnabled(conversationStore != null);
+            JPanel optionsPanel = new JPanel(new GridLayout(0, 2, 5, 5));
+            optionsPanel.add(new JLabel("Export:"));
+            optionsPanel.add(scopeDropdown);
+            optionsPanel.add(new JLabel("Format:"));
+            optionsPanel.add(formatDropdown);
+            optionsPanel.add(new JLabel());
+            optionsPanel.add(gzipCheckBox);
+            if (JOptionPane.showConfirmDialog(frame, optionsPanel, "Export Chat", JOptionPane.OK_CANCEL_OPTION,
+                    JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+                return;
+            }
+            ChatExporter.Format format = (ChatExporter.Format) formatDropdown.getSelectedItem();
+            boolean gzip = gzipCheckBox.isSelected();
+            boolean allSessions = scopeDropdown.getSelectedIndex() == 1;
+
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setSelectedFile(new File(defaultFileNameForChatExport));
-            int returnValue = fileChooser.showSaveDialog(frame);
-            if (returnValue == JFileChooser.APPROVE_OPTION) {
-                File file = fileChooser.getSelectedFile();
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-                    writer.write(chatHistory.getText());
-                    JOptionPane.showMessageDialog(frame, "Chat exported successfully!");
-                } catch (IOException ex) {
-                    JOptionPane.showMessageDialog(frame, "Error exporting chat: " + ex.getMessage());
-                }
+            fileChooser.setSelectedFile(new File(cacheDirectory, (allSessions ? "ollama4j-conversations"
+                    : defaultFileNameForChatExport) + format.getExtension() + (gzip ? ".gz" : "")));
+            if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File file = fileChooser.getSelectedFile();
+            exportButton.setEnabled(false);
+            ConversationStore.SessionInfo session = currentSession.get();
+            if (!allSessions && (conversationStore == null || session == null
+                    || storedMessageCount.get() != history.size())) {
+                // a chat that is not journaled, exported without timestamps
+                monitorExport(listener -> chatExporter.export(history, file, format, gzip, listener),
+                        "Exporting chat", () -> exportButton.setEnabled(true));
+                return;
+            }
+            if (!allSessions) {
+                // exported from the journal, which records when each message was sent or received
+                conversationStore.sync().thenRun(() -> SwingUtilities.invokeLater(() -> monitorExport(
+                        listener -> chatExporter.exportSessions(conversationStore, List.of(session), file, format,
+                                gzip, listener),
+                        "Exporting chat", () -> exportButton.setEnabled(true))));
+                return;
             }
+            conversationStore.listSessions().whenComplete((sessions, error) -> SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    exportButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(frame, "Error loading conversations: " + error.getMessage());
+                    return;
+                }
+                monitorExport(listener -> chatExporter.exportSessions(conversationStore, sessions, file, format,
+                        gzip, listener), "Exporting " + sessions.size() + " conversations",
+                        () -> exportButton.setEnabled(true));
+            }));
         });
         return chatPanel;
     }
 
+    private static JPanel getComparePanel() {
+        JPanel comparePanel = new JPanel(new BorderLayout());
+
+        DefaultListModel<String> modelListModel = new DefaultListModel<>();
+        JList<String> modelList = new JList<>(modelListModel);
+        modelList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        modelList.setToolTipText("Select the models to compare");
+        modelCatalog.addListener(models -> {
+            List<String> selected = modelList.getSelectedValuesList();
+            modelListModel.clear();
+            models.stream().map(Model::getName).forEach(modelListModel::addElement);
+            for (String name : selected) {
+                int index = modelListModel.indexOf(name);
+                if (index >= 0) {
+                    modelList.addSelectionInterval(index, index);
+                }
+            }
+        });
+        JScrollPane modelListScrollPane = new JScrollPane(modelList);
+        modelListScrollPane.setPreferredSize(new Dimension(150, 0));
+
+        JPanel responsePanesPanel = new JPanel(new GridLayout(1, 0, 5, 0));
+        String[] columnNames = { "Model", "Status", "First Token (ms)", "Total (ms)", "Tokens", "Tokens/s" };
+        DefaultTableModel statsTableModel = new DefaultTableModel(columnNames, 0);
+        JTable statsTable = new JTable(statsTableModel);
+        statsTable.setDefaultEditor(Object.class, null);
+        JScrollPane statsScrollPane = new JScrollPane(statsTable);
+        statsScrollPane.setPreferredSize(new Dimension(600, 100));
+
+        JTextField promptField = new JTextField();
+        JButton compareButton = new JButton("Compare");
+        JButton stopButton = new JButton("⏹");
+        stopButton.setToolTipText("Stop");
+        stopButton.setEnabled(false);
+        JPanel promptButtonsPanel = new JPanel();
+        promptButtonsPanel.add(compareButton);
+        promptButtonsPanel.add(stopButton);
+        JPanel promptPanel = new JPanel(new BorderLayout());
+        promptPanel.add(new JLabel("Prompt: "), BorderLayout.WEST);
+        promptPanel.add(promptField, BorderLayout.CENTER);
+        promptPanel.add(promptButtonsPanel, BorderLayout.EAST);
+
+        List<ChatRequestScheduler.ChatRequest<ModelComparison.Stats>> activeRequests = new ArrayList<>();
+        stopButton.addActionListener(e -> {
+            stopButton.setEnabled(false);
+            new ArrayList<>(activeRequests).forEach(ChatRequestScheduler.ChatRequest::cancel);
+        });
+        ActionListener startComparison = e -> {
+            String prompt = promptField.getText().trim();
+            List<String> models = modelList.getSelectedValuesList();
+            if (prompt.isEmpty() || !activeRequests.isEmpty()) {
+                return;
+            }
+            if (models.size() < 2) {
+                JOptionPane.showMessageDialog(frame, "Please select at least two models to compare.", "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            responsePanesPanel.removeAll();
+            statsTableModel.setRowCount(0);
+            Map<String, StreamingTextRenderer> renderers = new HashMap<>();
+            for (String model : models) {
+                JTextArea responseArea = new JTextArea();
+                responseArea.setEditable(false);
+                responseArea.setLineWrap(true);
+                responseArea.setWrapStyleWord(true);
+                JPanel pane = new JPanel(new BorderLayout());
+                pane.add(new JLabel(model), BorderLayout.NORTH);
+                pane.add(new JScrollPane(responseArea), BorderLayout.CENTER);
+                responsePanesPanel.add(pane);
+                renderers.put(model, new StreamingTextRenderer(responseArea::append, streamFlushIntervalMillis,
+                        streamMaxBacklogChars));
+                statsTableModel.addRow(new Object[] { model, "Queued", "", "", "", "" });
+            }
+            responsePanesPanel.revalidate();
+            responsePanesPanel.repaint();
+
+            List<ChatRequestScheduler.ChatRequest<ModelComparison.Stats>> requests;
+            try {
+                // no history, so every model gets just the prompt with the options a chat turn would use
+                ContextWindowManager.ContextWindow window = contextWindowManager.select(List.of(), prompt);
+                requests = modelComparison.start(hostPool, models,
+                        model -> OllamaStreamingChat.buildRequest(model, window, prompt), model -> {
+                    OllamaStreamHandler renderHandler = new CustomStreamHandler(renderers.get(model));
+                    AtomicBoolean streaming = new AtomicBoolean(false);
+                    return chunk -> {
+                        if (streaming.compareAndSet(false, true)) {
+                            SwingUtilities.invokeLater(() -> statsTableModel.setValueAt("Streaming",
+                                    models.indexOf(model), 1));
+                        }
+                        renderHandler.accept(chunk);
+                    };
+                });
+            } catch (RejectedExecutionException ex) {
+                JOptionPane.showMessageDialog(frame, "Too many requests queued, please retry later.", "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            activeRequests.addAll(requests);
+            compareButton.setEnabled(false);
+            stopButton.setEnabled(true);
+            for (int i = 0; i < requests.size(); i++) {
+                int row = i;
+                ChatRequestScheduler.ChatRequest<ModelComparison.Stats> request = requests.get(i);
+                StreamingTextRenderer renderer = renderers.get(models.get(i));
+                request.result().whenComplete((stats, error) -> SwingUtilities.invokeLater(() -> {
+                    renderer.flush();
+                    if (error == null) {
+                        statsTableModel.setValueAt("Done", row, 1);
+                        statsTableModel.setValueAt(stats.getFirstChunkMillis() < 0 ? "-" : stats.getFirstChunkMillis(),
+                                row, 2);
+                        statsTableModel.setValueAt(stats.getTotalMillis(), row, 3);
+                        statsTableModel.setValueAt("~" + stats.getOutputTokens(), row, 4);
+                        statsTableModel.setValueAt(String.format("%.1f", stats.getTokensPerSecond()), row, 5);
+                        logger.info("Compared {}: first token {} ms, total {} ms, ~{} tokens/s", stats.getModel(),
+                                stats.getFirstChunkMillis(), stats.getTotalMillis(),
+                                String.format("%.1f", stats.getTokensPerSecond()));
+                    } else {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        if (cause instanceof CancellationException) {
+                            statsTableModel.setValueAt("Stopped", row, 1);
+                        } else {
+                            logger.error("Comparison request for {} failed", models.get(row), cause);
+                            statsTableModel.setValueAt("Error: " + cause.getMessage(), row, 1);
+                        }
+                    }
+                    activeRequests.remove(request);
+                    if (activeRequests.isEmpty()) {
+                        compareButton.setEnabled(true);
+                        stopButton.setEnabled(false);
+                    }
+                }));
+            }
+        };
+        compareButton.addActionListener(startComparison);
+        promptField.addActionListener(startComparison);
+
+        JPanel resultsPanel = new JPanel(new BorderLayout());
+        resultsPanel.add(responsePanesPanel, BorderLayout.CENTER);
+        resultsPanel.add(statsScrollPane, BorderLayout.SOUTH);
+
+        comparePanel.add(new JLabel("Compare Models (max " + compareMaxConcurrent + " at a time)"),
+                BorderLayout.NORTH);
+        comparePanel.add(modelListScrollPane, BorderLayout.WEST);
+        comparePanel.add(resultsPanel, BorderLayout.CENTER);
+        comparePanel.add(promptPanel, BorderLayout.SOUTH);
+        return comparePanel;
+    }
+
     private static JPanel getSettingsPanel() {
         JPanel settingsPanel = new JPanel(new BorderLayout());
-        String[] settingsColumnNames = { "Setting", "Value" };
+        // the third column holds the key in the settings file and is not shown
+        String[] settingsColumnNames = { "Setting", "Value", "Key" };
         DefaultTableModel settingsTableModel = new DefaultTableModel(settingsColumnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return false;
+                return column == 1;
             }
         };
 
         settingsPanel.add(new JLabel("Ollama4j UI Configuration"), BorderLayout.NORTH);
         JTable settingsTable = new JTable(settingsTableModel);
+        settingsTable.removeColumn(settingsTable.getColumnModel().getColumn(2));
         settingsTable.setToolTipText("Config loaded from " + settingsFilePath);
-        settingsTableModel.addRow(new Object[] { "Ollama Host", ollamaHost });
-        settingsTableModel.addRow(new Object[] { "Temperature", temperature });
-        settingsTableModel.addRow(new Object[] { "Max Tokens", maxTokens });
+        // set while the rows are refilled so the edit listener does not save them
+        AtomicBoolean updatingSettings = new AtomicBoolean(false);
+        // the type each setting was shown with, to validate edits
+        Map<String, Class<?>> settingTypes = new HashMap<>();
+        Runnable fillSettings = () -> {
+            updatingSettings.set(true);
+            try {
+                if (settingsTable.isEditing()) {
+                    settingsTable.getCellEditor().cancelCellEditing();
+                }
+                settingsTableModel.setRowCount(0);
+                settingsTableModel.addRow(new Object[] { "Ollama Host", ollamaHost, "ollamaHost" });
+                settingsTableModel.addRow(new Object[] { "Ollama Hosts (comma-separated)", ollamaHosts,
+                        "ollamaHosts" });
+                settingsTableModel.addRow(new Object[] { "Host Probe Interval (s)", hostProbeIntervalSeconds,
+                        "hostProbeIntervalSeconds" });
+                settingsTableModel.addRow(new Object[] { "Temperature", temperature, "temperature" });
+                settingsTableModel.addRow(new Object[] { "Max Tokens", maxTokens, "maxTokens" });
+                settingsTableModel.addRow(new Object[] { "Seed", seed, "seed" });
+                settingsTableModel.addRow(new Object[] { "Stream Flush Interval (ms)", streamFlushIntervalMillis,
+                        "streamFlushIntervalMillis" });
+                settingsTableModel.addRow(new Object[] { "Stream Max Backlog (chars)", streamMaxBacklogChars,
+                        "streamMaxBacklogChars" });
+                settingsTableModel.addRow(new Object[] { "Max Concurrent Chats", maxConcurrentChats,
+                        "maxConcurrentChats" });
+                settingsTableModel.addRow(new Object[] { "Chat Queue Capacity", chatQueueCapacity,
+                        "chatQueueCapacity" });
+                settingsTableModel.addRow(new Object[] { "Model Catalog TTL (s)", modelCatalogTtlSeconds,
+                        "modelCatalogTtlSeconds" });
+                settingsTableModel.addRow(new Object[] { "Model Library Max Age (min)", modelLibraryMaxAgeMinutes,
+                        "modelLibraryMaxAgeMinutes" });
+                settingsTableModel.addRow(new Object[] { "Max Concurrent Pulls", maxConcurrentPulls,
+                        "maxConcurrentPulls" });
+                settingsTableModel.addRow(new Object[] { "Context Token Budget", contextTokenBudget,
+                        "contextTokenBudget" });
+                settingsTableModel.addRow(new Object[] { "Save Conversations", saveConversations,
+                        "saveConversations" });
+                settingsTableModel.addRow(new Object[] { "Tool Timeout (s)", toolTimeoutSeconds,
+                        "toolTimeoutSeconds" });
+                settingsTableModel.addRow(new Object[] { "Tool Cache TTL (s)", toolCacheTtlSeconds,
+                        "toolCacheTtlSeconds" });
+                settingsTableModel.addRow(new Object[] { "Max Concurrent Compare Models", compareMaxConcurrent,
+                        "compareMaxConcurrent" });
+                settingsTableModel.addRow(new Object[] { "Metrics History Size", metricsHistorySize,
+                        "metricsHistorySize" });
+                settingsTableModel.addRow(new Object[] { "Batch Model", batchModel, "batchModel" });
+                settingsTableModel.addRow(new Object[] { "Batch Parallelism", batchParallelism,
+                        "batchParallelism" });
+                settingsTableModel.addRow(new Object[] { "Keep Alive", keepAlive, "keepAlive" });
+                settingsTableModel.addRow(new Object[] { "Warm Up On Select", warmUpOnSelect, "warmUpOnSelect" });
+                settingsTableModel.addRow(new Object[] { "Response Cache", responseCacheEnabled, "responseCache" });
+                settingsTableModel.addRow(new Object[] { "Response Cache Max Size (MB)", responseCacheMaxMegabytes,
+                        "responseCacheMaxMegabytes" });
+                loadedSettings.stringPropertyNames().stream()
+                        .filter(key -> key.startsWith(ModelProfile.PROFILE_PREFIX)
+                                || key.startsWith(ModelProfile.MODEL_PROFILE_PREFIX))
+                        .sorted()
+                        .forEach(key -> settingsTableModel.addRow(new Object[] { key,
+                                loadedSettings.getProperty(key), key }));
+                settingTypes.clear();
+                for (int row = 0; row < settingsTableModel.getRowCount(); row++) {
+                    Object value = settingsTableModel.getValueAt(row, 1);
+                    settingTypes.put((String) settingsTableModel.getValueAt(row, 2),
+                            value != null ? value.getClass() : String.class);
+                }
+            } finally {
+                updatingSettings.set(false);
+            }
+        };
+        fillSettings.run();
+        settingsListeners.add(fillSettings);
+
+        settingsTableModel.addTableModelListener(e -> {
+            if (updatingSettings.get() || e.getType() != TableModelEvent.UPDATE || e.getColumn() != 1) {
+                return;
+            }
+            int row = e.getFirstRow();
+            String key = (String) settingsTableModel.getValueAt(row, 2);
+            Object value = settingsTableModel.getValueAt(row, 1);
+            String text = value == null ? "" : value.toString().trim();
+            Class<?> type = settingTypes.get(key);
+            if (type == Integer.class && !text.matches("-?\\d+")
+                    || type == Boolean.class && !text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+                JOptionPane.showMessageDialog(frame, "Invalid value for " + settingsTableModel.getValueAt(row, 0)
+                        + ": " + text);
+                SwingUtilities.invokeLater(fillSettings);
+                return;
+            }
+            // the rows are refilled on reload, which must not happen while the table is handling the edit
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    saveSettings(Map.of(key, text));
+                    reloadSettings();
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(frame, "Error saving settings: " + ex.getMessage());
+                    fillSettings.run();
+                }
+            });
+        });
 
+        JLabel hintLabel = new JLabel("Edits are saved to the settings file, which is also reloaded when it changes. "
+                + "Generation options, keep alive, context budget and profiles apply to the next request; "
+                + "the other settings after a restart.");
         settingsPanel.add(new JScrollPane(settingsTable), BorderLayout.CENTER);
-        // settingsPanel.add(settingsButtonPanel, BorderLayout.SOUTH);
+        settingsPanel.add(hintLabel, BorderLayout.SOUTH);
         return settingsPanel;
     }
 
     private static JPanel getModelsPanel() {
         JPanel modelsPanel = new JPanel(new BorderLayout());
-        String[] columnNames = { "Model", "Version", "Size", "Parameter Size", "Quantization Level", "Format" };
-        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
+        IndexedTableModel<Model> tableModel = new IndexedTableModel<>(List.of(
+                IndexedTableModel.Column.text("Model", Model::getModelName),
+                IndexedTableModel.Column.text("Version", Model::getModelVersion),
+                IndexedTableModel.Column.numeric("Size", model -> humanReadableSize(model.getSize()),
+                        Model::getSize),
+                IndexedTableModel.Column.numeric("Parameter Size", model -> model.getModelMeta().getParameterSize(),
+                        model -> IndexedTableModel.parseMagnitude(model.getModelMeta().getParameterSize())),
+                IndexedTableModel.Column.text("Quantization Level",
+                        model -> model.getModelMeta().getQuantizationLevel()),
+                IndexedTableModel.Column.text("Format", model -> model.getModelMeta().getFormat())),
+                Model::getName);
         JTable table = new JTable(tableModel);
+        tableModel.installSorting(table);
+        JLabel statusLabel = new JLabel("Loading...");
+        ModelDetailsView detailsView = new ModelDetailsView();
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) {
+                return;
+            }
+            if (table.getSelectedRow() < 0) {
+                detailsView.show(null, null);
+                return;
+            }
+            String name = tableModel.getRow(table.getSelectedRow()).getName();
+            detailsView.show(name, () -> ModelDetailsView.formatShowResponse(hostPool.peek(name, null)
+                    .getRestClient().post("/api/show", Map.of("model", name), Duration.ofSeconds(30))));
+        });
 
-        try {
-            ollamaAPI.listModels().forEach(model -> {
-                String size = humanReadableSize(model.getSize());
-                tableModel.addRow(new Object[] { model.getModelName(), model.getModelVersion(), size,
-                        model.getModelMeta().getParameterSize(), model.getModelMeta().getQuantizationLevel(),
-                        model.getModelMeta().getFormat() });
-            });
-        } catch (Exception e) {
-            logger.error("Error: {}", e.getMessage());
-        }
+        modelCatalog.addListener(new ModelCatalog.Listener() {
+            @Override
+            public void modelsLoaded(List<Model> models) {
+                tableModel.setRows(models);
+                detailsView.clear();
+                statusLabel.setText(models.size() + " models");
+            }
+
+            @Override
+            public void modelsFailed(Exception error) {
+                statusLabel.setText("Error: " + error.getMessage());
+            }
+        });
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> {
+            statusLabel.setText("Loading...");
+            modelCatalog.refresh();
+        });
         table.setDefaultEditor(Object.class, null);
-        modelsPanel.add(new JLabel("Downloaded Models"), BorderLayout.NORTH);
-        modelsPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.add(new JLabel("Downloaded Models"), BorderLayout.WEST);
+        headerPanel.add(createFilterField(tableModel), BorderLayout.CENTER);
+        JLabel hostsLabel = new JLabel();
+        Runnable showHosts = () -> {
+            List<OllamaHostPool.Host> hosts = hostPool.getHosts();
+            long healthy = hosts.stream().filter(OllamaHostPool.Host::isHealthy).count();
+            hostsLabel.setText(hosts.size() == 1 ? "" : healthy + "/" + hosts.size() + " hosts up");
+            StringBuilder tooltip = new StringBuilder("<html>");
+            hosts.forEach(host -> tooltip.append(host).append("<br>"));
+            hostsLabel.setToolTipText(tooltip.append("</html>").toString());
+        };
+        hostPool.addListener(showHosts);
+        showHosts.run();
+        JPanel headerActionsPanel = new JPanel();
+        headerActionsPanel.add(hostsLabel);
+        headerActionsPanel.add(statusLabel);
+        headerActionsPanel.add(refreshButton);
+        headerPanel.add(headerActionsPanel, BorderLayout.EAST);
+        modelsPanel.add(headerPanel, BorderLayout.NORTH);
+        modelsPanel.add(createDetailsSplitPane(table, detailsView), BorderLayout.CENTER);
         return modelsPanel;
     }
 
     private static JPanel getDownloadableModelsPanel() {
         JPanel downloadableModelsPanel = new JPanel(new BorderLayout());
-        String[] columnNames = { "Model", "Description", "Pull Count", "Last Updated" };
-        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
+        IndexedTableModel<LibraryModel> tableModel = new IndexedTableModel<>(List.of(
+                IndexedTableModel.Column.text("Model", LibraryModel::getName),
+                IndexedTableModel.Column.text("Description", LibraryModel::getDescription),
+                IndexedTableModel.Column.numeric("Pull Count", LibraryModel::getPullCount,
+                        model -> IndexedTableModel.parseMagnitude(model.getPullCount())),
+                IndexedTableModel.Column.numeric("Last Updated", LibraryModel::getLastUpdated,
+                        model -> IndexedTableModel.parseAgeSeconds(model.getLastUpdated()))),
+                model -> model.getName() + " " + model.getDescription());
         JTable table = new JTable(tableModel);
+        tableModel.installSorting(table);
+        JLabel statusLabel = new JLabel("Loading...");
+        ModelDetailsView detailsView = new ModelDetailsView();
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) {
+                return;
+            }
+            if (table.getSelectedRow() < 0) {
+                detailsView.show(null, null);
+                return;
+            }
+            LibraryModel model = tableModel.getRow(table.getSelectedRow());
+            detailsView.show(model.getName(), () -> ModelDetailsView.formatLibraryDetails(model,
+                    ollamaAPI.getLibraryModelDetails(model)));
+        });
 
-        try {
-            ollamaAPI.listModelsFromLibrary().forEach(model -> {
-                tableModel.addRow(new Object[] { model.getName(), model.getDescription(), model.getPullCount(),
-                        model.getLastUpdated() });
-            });
-        } catch (Exception e) {
-            logger.error("Error: {}", e.getMessage());
-        }
+        ModelLibraryCache.Listener libraryListener = new ModelLibraryCache.Listener() {
+            @Override
+            public void libraryLoaded(List<LibraryModel> models, long fetchedAtMillis, boolean fromCache) {
+                tableModel.setRows(models);
+                detailsView.clear();
+                statusLabel.setText(models.size() + " models, updated " + describeAge(fetchedAtMillis)
+                        + (fromCache ? " (cached)" : ""));
+            }
+
+            @Override
+            public void libraryFailed(Exception error, boolean hasCachedCopy) {
+                statusLabel.setText(hasCachedCopy
+                        ? statusLabel.getText() + " - refresh failed"
+                        : "Error: " + error.getMessage());
+                statusLabel.setToolTipText(error.getMessage());
+            }
+        };
+        modelLibraryCache.load(libraryListener);
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> {
+            statusLabel.setText("Refreshing...");
+            modelLibraryCache.refresh(libraryListener);
+        });
         table.setDefaultEditor(Object.class, null);
-        downloadableModelsPanel.add(new JLabel("Model Library"), BorderLayout.NORTH);
-        downloadableModelsPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel pullsPanel = new JPanel();
+        pullsPanel.setLayout(new BoxLayout(pullsPanel, BoxLayout.Y_AXIS));
+        JScrollPane pullsScrollPane = new JScrollPane(pullsPanel);
+        pullsScrollPane.setPreferredSize(new Dimension(600, 110));
+        pullsScrollPane.setBorder(BorderFactory.createTitledBorder("Downloads"));
+        pullsScrollPane.setVisible(false);
+        Set<ModelPuller.Pull> shownPulls = new HashSet<>();
+
+        JButton pullButton = new JButton("Pull");
+        pullButton.setToolTipText("Download the selected model onto the Ollama server");
+        pullButton.setEnabled(false);
+        table.getSelectionModel().addListSelectionListener(e -> pullButton.setEnabled(table.getSelectedRow() >= 0));
+        pullButton.addActionListener(e -> {
+            LibraryModel model = tableModel.getRow(table.getSelectedRow());
+            JComboBox<String> nameComboBox = new JComboBox<>();
+            nameComboBox.setEditable(true);
+            nameComboBox.addItem(model.getName());
+            if (model.getPopularTags() != null) {
+                model.getPopularTags().forEach(tag -> nameComboBox.addItem(model.getName() + ":" + tag));
+            }
+            JComboBox<String> hostComboBox = new JComboBox<>();
+            hostPool.getHosts().forEach(host -> hostComboBox.addItem(host.getUrl()));
+            JPanel optionsPanel = new JPanel(new GridLayout(0, 1));
+            optionsPanel.add(new JLabel("Model (name or name:tag):"));
+            optionsPanel.add(nameComboBox);
+            if (hostPool.getHosts().size() > 1) {
+                optionsPanel.add(new JLabel("Server:"));
+                optionsPanel.add(hostComboBox);
+            }
+            if (JOptionPane.showConfirmDialog(frame, optionsPanel, "Pull Model", JOptionPane.OK_CANCEL_OPTION,
+                    JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+                return;
+            }
+            String name = String.valueOf(nameComboBox.getSelectedItem()).trim();
+            if (name.isEmpty()) {
+                return;
+            }
+            OllamaRestClient client = hostPool.getHosts().get(Math.max(0, hostComboBox.getSelectedIndex()))
+                    .getRestClient();
+            startPull(client, name, pullsPanel, shownPulls);
+            pullsScrollPane.setVisible(true);
+            downloadableModelsPanel.revalidate();
+        });
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.add(new JLabel("Model Library"), BorderLayout.WEST);
+        headerPanel.add(createFilterField(tableModel), BorderLayout.CENTER);
+        JPanel headerActionsPanel = new JPanel();
+        headerActionsPanel.add(statusLabel);
+        headerActionsPanel.add(refreshButton);
+        headerActionsPanel.add(pullButton);
+        headerPanel.add(headerActionsPanel, BorderLayout.EAST);
+        downloadableModelsPanel.add(headerPanel, BorderLayout.NORTH);
+        downloadableModelsPanel.add(createDetailsSplitPane(table, detailsView), BorderLayout.CENTER);
+        downloadableModelsPanel.add(pullsScrollPane, BorderLayout.SOUTH);
         return downloadableModelsPanel;
     }
 
+    /**
+     * Starts pulling a model and adds a row with its progress and a button to cancel it, or to remove the row once
+     * the pull is over. A finished pull refreshes the model list, so the model can be picked for chats right away.
+     */
+    private static void startPull(OllamaRestClient client, String model, JPanel pullsPanel,
+            Set<ModelPuller.Pull> shownPulls) {
+        JPanel row = new JPanel(new BorderLayout(8, 0));
+        row.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+        row.setMaximumSize(new Dimension(Integer.MAX_VALUE, 32));
+        JLabel nameLabel = new JLabel(hostPool.getHosts().size() > 1 ? model + " on " + client.getHost() : model);
+        JProgressBar progressBar = new JProgressBar(0, 1000);
+        progressBar.setStringPainted(true);
+        JButton actionButton = new JButton("Cancel");
+        row.add(nameLabel, BorderLayout.WEST);
+        row.add(progressBar, BorderLayout.CENTER);
+        row.add(actionButton, BorderLayout.EAST);
+
+        ModelPuller.Pull pull = modelPuller.pull(client, model, updated -> {
+            switch (updated.getState()) {
+                case QUEUED:
+                    progressBar.setString("Waiting");
+                    break;
+                case RUNNING:
+                    long total = updated.getTotalBytes();
+                    progressBar.setIndeterminate(total <= 0);
+                    if (total > 0) {
+                        progressBar.setValue((int) (updated.getCompletedBytes() * 1000 / total));
+                        progressBar.setString(updated.getStatus() + "  "
+                                + humanReadableSize(updated.getCompletedBytes()) + " / " + humanReadableSize(total));
+                    } else {
+                        progressBar.setString(updated.getStatus());
+                    }
+                    break;
+                case DONE:
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue(1000);
+                    progressBar.setString("Pulled");
+                    actionButton.setText("Remove");
+                    modelCatalog.refresh();
+                    break;
+                case FAILED:
+                    progressBar.setIndeterminate(false);
+                    progressBar.setString("Failed: " + updated.getError());
+                    progressBar.setToolTipText(updated.getError());
+                    actionButton.setText("Remove");
+                    break;
+                default:
+                    progressBar.setIndeterminate(false);
+                    progressBar.setString("Cancelled");
+                    actionButton.setText("Remove");
+            }
+        });
+        if (!shownPulls.add(pull)) {
+            JOptionPane.showMessageDialog(frame, model + " is already being pulled.");
+            return;
+        }
+        actionButton.addActionListener(e -> {
+            if (!pull.isFinished()) {
+                pull.cancel();
+            } else {
+                shownPulls.remove(pull);
+                pullsPanel.remove(row);
+                pullsPanel.revalidate();
+                pullsPanel.repaint();
+            }
+        });
+        pullsPanel.add(row);
+        pullsPanel.revalidate();
+    }
+
+    /**
+     * A search field that filters the table as the user types.
+     */
+    private static JTextField createFilterField(IndexedTableModel<?> tableModel) {
+        JTextField filterField = new JTextField(20);
+        filterField.setToolTipText("Filter by words or the beginnings of words");
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                tableModel.setFilter(filterField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                tableModel.setFilter(filterField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                tableModel.setFilter(filterField.getText());
+            }
+        });
+        return filterField;
+    }
+
+    private static JSplitPane createDetailsSplitPane(JTable table, ModelDetailsView detailsView) {
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table), detailsView);
+        splitPane.setResizeWeight(0.75);
+        return splitPane;
+    }
+
+    private static JPanel getMetricsPanel() {
+        JPanel metricsPanel = new JPanel(new BorderLayout());
+        String[] columnNames = { "Metric", "Last", "p50", "p90", "p99", "Max" };
+        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
+        JTable table = new JTable(tableModel);
+        table.setDefaultEditor(Object.class, null);
+        JLabel statusLabel = new JLabel("No chat turns yet");
+        JLabel cacheLabel = new JLabel(responseCache != null ? responseCache.describe() : "Cache: off");
+        cacheLabel.setToolTipText("Response cache for deterministic requests (temperature 0 or a fixed seed)");
+
+        Runnable updateMetrics = () -> {
+            List<ChatMetrics.TurnMetrics> turns = chatMetrics.getTurns();
+            ChatMetrics.TurnMetrics last = turns.isEmpty() ? null : turns.get(turns.size() - 1);
+            tableModel.setRowCount(0);
+            for (ChatMetrics.Metric metric : ChatMetrics.Metric.values()) {
+                tableModel.addRow(new Object[] { metric.getLabel(),
+                        last != null ? formatMetric(metric.valueOf(last)) : "-",
+                        formatMetric(chatMetrics.percentile(metric, 50)),
+                        formatMetric(chatMetrics.percentile(metric, 90)),
+                        formatMetric(chatMetrics.percentile(metric, 99)),
+                        formatMetric(chatMetrics.percentile(metric, 100)) });
+            }
+            long failed = turns.stream().filter(ChatMetrics.TurnMetrics::isFailed).count();
+            statusLabel.setText(turns.isEmpty()
+                    ? "No chat turns yet"
+                    : turns.size() + " turns" + (failed > 0 ? " (" + failed + " failed)" : "")
+                            + (last != null ? ", last: " + last.getModel() : ""));
+            if (responseCache != null) {
+                cacheLabel.setText(responseCache.describe());
+            }
+        };
+        chatMetrics.addListener(updateMetrics);
+        updateMetrics.run();
+
+        JButton exportButton = new JButton("Export");
+        exportButton.setToolTipText("Export the recorded turns as CSV, or as JSON lines with a .jsonl file name");
+        exportButton.addActionListener(e -> {
+            JFileChooser fileChooser = new JFileChooser();
+            fileChooser.setSelectedFile(new File(cacheDirectory + File.separator + "ollama4j-metrics.csv"));
+            if (fileChooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
+                try {
+                    chatMetrics.export(fileChooser.getSelectedFile());
+                    JOptionPane.showMessageDialog(frame, "Metrics exported successfully!");
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(frame, "Error exporting metrics: " + ex.getMessage());
+                }
+            }
+        });
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> chatMetrics.reset());
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.add(new JLabel("Chat Metrics"), BorderLayout.WEST);
+        JPanel headerActionsPanel = new JPanel();
+        headerActionsPanel.add(statusLabel);
+        headerActionsPanel.add(cacheLabel);
+        headerActionsPanel.add(exportButton);
+        headerActionsPanel.add(resetButton);
+        headerPanel.add(headerActionsPanel, BorderLayout.EAST);
+        metricsPanel.add(headerPanel, BorderLayout.NORTH);
+        metricsPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return metricsPanel;
+    }
+
+    private static String formatMetric(double value) {
+        if (Double.isNaN(value) || value < 0) {
+            return "-";
+        }
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.1f", value);
+    }
+
     private static void createAndShowGUI() {
+        frame = new JFrame(appTitle);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(600, 400);
         frame.setLayout(new BorderLayout());
 
+        // only the chat is built up front; the other panels are built the first time they are selected, so they
+        // do not slow down the start or load data (e.g. the model library) that may never be looked at
+        Map<String, Supplier<JPanel>> panelBuilders = new LinkedHashMap<>();
+        panelBuilders.put("Chat", Ollama4jUI::getChatPanel);
+        panelBuilders.put("Compare", Ollama4jUI::getComparePanel);
+        panelBuilders.put("Models", Ollama4jUI::getModelsPanel);
+        panelBuilders.put("Model Library", Ollama4jUI::getDownloadableModelsPanel);
+        panelBuilders.put("Metrics", Ollama4jUI::getMetricsPanel);
+        panelBuilders.put("Settings", Ollama4jUI::getSettingsPanel);
+
         DefaultListModel<String> listModel = new DefaultListModel<>();
-        listModel.addElement("Chat");
-        listModel.addElement("Models");
-        listModel.addElement("Model Library");
-        listModel.addElement("Settings");
+        panelBuilders.keySet().forEach(listModel::addElement);
 
         JList<String> list = new JList<>(listModel);
         list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -371,30 +1610,90 @@ public class Ollama4jUI {
         leftPanel.add(new JScrollPane(list), BorderLayout.CENTER);
 
         JPanel rightPanel = new JPanel(new CardLayout());
-
-        JPanel chatPanel = getChatPanel();
-        JPanel modelsPanel = getModelsPanel();
-        JPanel settingsPanel = getSettingsPanel();
-        JPanel downloadableModelsPanel = getDownloadableModelsPanel();
-
-        rightPanel.add(chatPanel, "Chat");
-        rightPanel.add(modelsPanel, "Models");
-        rightPanel.add(downloadableModelsPanel, "Model Library");
-        rightPanel.add(settingsPanel, "Settings");
+        Set<String> builtPanels = new HashSet<>();
+        rightPanel.add(panelBuilders.get("Chat").get(), "Chat");
+        builtPanels.add("Chat");
 
         list.addListSelectionListener(e -> {
-            if (!e.getValueIsAdjusting()) {
+            String selected = list.getSelectedValue();
+            if (!e.getValueIsAdjusting() && selected != null) {
+                if (builtPanels.add(selected)) {
+                    rightPanel.add(panelBuilders.get(selected).get(), selected);
+                }
                 CardLayout cl = (CardLayout) rightPanel.getLayout();
-                cl.show(rightPanel, list.getSelectedValue());
+                cl.show(rightPanel, selected);
             }
         });
 
         frame.add(leftPanel, BorderLayout.WEST);
         frame.add(rightPanel, BorderLayout.CENTER);
         frame.setVisible(true);
+        if (Boolean.getBoolean("ollama4j.startupProbe")) {
+            // queued behind the events of showing the frame, so this runs once it has been painted
+            SwingUtilities.invokeLater(Ollama4jUI::reportStartup);
+        }
     }
 
-    private static String humanReadableSize(long bytes) {
+    /**
+     * Prints how long it took from the start of the JVM until the window was shown and exits, for measuring the cold
+     * start in the build. Exits with 1 if {@code ollama4j.maxStartupMillis} is set and the start took longer.
+     */
+    private static void reportStartup() {
+        long startupMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        long maxStartupMillis = Long.getLong("ollama4j.maxStartupMillis", 0);
+        System.out.println("Startup took " + startupMillis + " ms");
+        if (maxStartupMillis > 0 && startupMillis > maxStartupMillis) {
+            System.err.println("Startup took longer than " + maxStartupMillis + " ms");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Starts an export with a progress dialog that can cancel it, and reports the outcome.
+     */
+    private static void monitorExport(Function<ChatExporter.ProgressListener, ChatExporter.Export> start,
+            String title, Runnable onDone) {
+        ProgressMonitor progressMonitor = new ProgressMonitor(frame, title, null, 0, 1);
+        AtomicReference<ChatExporter.Export> export = new AtomicReference<>();
+        export.set(start.apply((done, total) -> {
+            if (progressMonitor.isCanceled()) {
+                export.get().cancel();
+                return;
+            }
+            progressMonitor.setMaximum(Math.max(1, total));
+            progressMonitor.setProgress(done);
+            progressMonitor.setNote(done + " / " + total);
+        }));
+        export.get().result().whenComplete((count, error) -> SwingUtilities.invokeLater(() -> {
+            progressMonitor.close();
+            onDone.run();
+            if (error instanceof CancellationException) {
+                return;
+            }
+            if (error != null) {
+                JOptionPane.showMessageDialog(frame, "Error exporting chat: " + error.getMessage());
+            } else {
+                JOptionPane.showMessageDialog(frame, "Exported " + count + " messages successfully!");
+            }
+        }));
+    }
+
+    private static String describeAge(long epochMillis) {
+        long minutes = Duration.ofMillis(System.currentTimeMillis() - epochMillis).toMinutes();
+        if (minutes < 1) {
+            return "just now";
+        }
+        if (minutes < 60) {
+            return minutes + " min ago";
+        }
+        if (minutes < 60 * 24) {
+            return (minutes / 60) + " h ago";
+        }
+        return (minutes / (60 * 24)) + " d ago";
+    }
+
+    static String humanReadableSize(long bytes) {
         if (bytes < 1024)
             return bytes + " B";
         int unit = 1024;
@@ -404,65 +1703,317 @@ public class Ollama4jUI {
     }
 
     static class CustomStreamHandler implements OllamaStreamHandler {
-        private final JTextArea chatHistory;
-        private final StringBuilder responseBuffer;
-        private final String botLabel;
+        private final StreamingTextRenderer renderer;
+        // length of the cumulative response already handed to the renderer
+        private int renderedLength = 0;
 
-        public CustomStreamHandler(JTextArea chatHistory, StringBuilder responseBuffer, String botLabel) {
-            this.chatHistory = chatHistory;
-            this.responseBuffer = responseBuffer;
-            this.botLabel = botLabel;
-            this.responseBuffer.append(botLabel);
-            chatHistory.setText(chatHistory.getText() + botLabel);
+        public CustomStreamHandler(StreamingTextRenderer renderer) {
+            this.renderer = renderer;
         }
 
+        /**
+         * @param message the response so far; chat streams and {@code chatWithTools} both hand over cumulative text
+         */
         @Override
         public void accept(String message) {
-            String substr = message.substring(responseBuffer.length() - botLabel.length());
-            responseBuffer.append(substr);
-            chatHistory.setText(chatHistory.getText() + substr);
-            chatHistory.setCaretPosition(chatHistory.getDocument().getLength());
+            if (message.length() > renderedLength) {
+                renderer.append(message.substring(renderedLength));
+                renderedLength = message.length();
+            }
         }
     }
 
     static class OllamaStreamingChat {
+        private volatile Consumer<ContextWindowManager.ContextWindow> contextWindowListener = window -> {
+        };
+        private volatile Consumer<ToolRouter.RouteReport> routeListener = report -> {
+        };
+        private volatile OllamaHostPool hostPool = null;
+        private volatile Supplier<String> sessionKeySupplier = () -> null;
+
+        /**
+         * Routes the turns through the pool instead of the {@code OllamaAPI} passed to {@code send}.
+         */
+        public void setHostPool(OllamaHostPool hostPool) {
+            this.hostPool = hostPool;
+        }
+
+        /**
+         * Supplies the key of the current conversation, whose turns the pool keeps on one host.
+         */
+        public void setSessionKeySupplier(Supplier<String> sessionKeySupplier) {
+            this.sessionKeySupplier = sessionKeySupplier;
+        }
+
+        /**
+         * Called from the worker thread with the context window selected for each turn.
+         */
+        public void setContextWindowListener(Consumer<ContextWindowManager.ContextWindow> contextWindowListener) {
+            this.contextWindowListener = contextWindowListener;
+        }
+
+        /**
+         * Called from the worker thread with the path each turn took.
+         */
+        public void setRouteListener(Consumer<ToolRouter.RouteReport> routeListener) {
+            this.routeListener = routeListener;
+        }
+
         public List<OllamaChatMessage> chat(String message, List<OllamaChatMessage> history, OllamaAPI ollamaAPI,
                 String model, OllamaStreamHandler streamHandler)
                 throws OllamaBaseException, IOException, InterruptedException {
-            OllamaChatRequestBuilder builder = OllamaChatRequestBuilder.getInstance(model).withMessages(history);
-            OllamaChatRequest requestModel = builder.withMessage(OllamaChatMessageRole.USER, message)
-                    .build();
+            ContextWindowManager.ContextWindow window = contextWindowManager.select(history, message);
+            logger.debug("Sending ~{} tokens ({} older messages dropped)", window.getEstimatedTokens(),
+                    window.getDroppedMessages());
+            contextWindowListener.accept(window);
+            int sentCount = window.getMessages().size();
+            Options options = requestOptions(model);
+            String cacheKey = responseCache != null && isDeterministic()
+                    ? ResponseCache.key(model, options.getOptionsMap(), window.getMessages(), message)
+                    : null;
+            if (cacheKey != null) {
+                String cachedResponse = responseCache.get(cacheKey);
+                if (cachedResponse != null) {
+                    logger.debug("Replaying cached response {}", cacheKey);
+                    // the handler expects the response so far, which is all of it
+                    streamHandler.accept(cachedResponse);
+                    List<OllamaChatMessage> updatedHistory = new ArrayList<>(history);
+                    updatedHistory.add(new OllamaChatMessage(OllamaChatMessageRole.USER, message));
+                    updatedHistory.add(new OllamaChatMessage(OllamaChatMessageRole.ASSISTANT, cachedResponse));
+                    return updatedHistory;
+                }
+            }
+            OllamaChatRequest requestModel = buildRequest(model, window, message, options);
             OllamaChatResult chatResult = ollamaAPI.chat(requestModel, streamHandler);
-            return chatResult.getChatHistory();
+            List<OllamaChatMessage> chatHistory = chatResult.getChatHistory();
+            if (cacheKey != null && !chatHistory.isEmpty()) {
+                OllamaChatMessage reply = chatHistory.get(chatHistory.size() - 1);
+                if (ChatTranscriptView.isRole(reply.getRole(), OllamaChatMessageRole.ASSISTANT)
+                        && !reply.getContent().isEmpty()) {
+                    responseCache.put(cacheKey, reply.getContent());
+                }
+            }
+            if (chatHistory.size() < sentCount) {
+                return chatHistory;
+            }
+            // keep the messages that were left out of the request, append the new prompt and reply
+            List<OllamaChatMessage> updatedHistory = new ArrayList<>(history);
+            updatedHistory.addAll(chatHistory.subList(sentCount, chatHistory.size()));
+            return updatedHistory;
+        }
+
+        /**
+         * Builds the request for a chat turn from the selected context window and the new prompt.
+         */
+        static OllamaChatRequest buildRequest(String model, ContextWindowManager.ContextWindow window,
+                String message) {
+            return buildRequest(model, window, message, requestOptions(model));
+        }
+
+        private static OllamaChatRequest buildRequest(String model, ContextWindowManager.ContextWindow window,
+                String message, Options options) {
+            List<OllamaChatMessage> requestMessages = new ArrayList<>(window.getMessages());
+            OllamaChatRequestBuilder builder = OllamaChatRequestBuilder.getInstance(model)
+                    .withMessages(requestMessages)
+                    .withMessage(OllamaChatMessageRole.USER, message)
+                    .withOptions(options);
+            String modelKeepAlive = keepAliveFor(model);
+            if (!modelKeepAlive.isEmpty()) {
+                builder = builder.withKeepAlive(modelKeepAlive);
+            }
+            return builder.build();
+        }
+
+        /**
+         * The model options from the settings, overridden by the model's profile. Values that do not parse are left
+         * to the server default.
+         */
+        static Options requestOptions(String model) {
+            OptionsBuilder builder = new OptionsBuilder();
+            Float temperatureValue = parseTemperature();
+            if (temperatureValue != null) {
+                builder.setTemperature(temperatureValue);
+            }
+            Integer seedValue = parseSeed();
+            if (seedValue != null) {
+                builder.setSeed(seedValue);
+            }
+            try {
+                if (maxTokens != null && !maxTokens.isBlank()) {
+                    builder.setNumPredict(Integer.parseInt(maxTokens.trim()));
+                }
+            } catch (NumberFormatException e) {
+                // left to the server default
+            }
+            ModelProfile profile = profileFor(model);
+            if (profile != null) {
+                profile.apply(builder);
+            }
+            return builder.build();
+        }
+
+        /**
+         * Whether the settings make the model's answers repeatable, i.e. temperature 0 or a fixed seed, which is
+         * when responses may be served from the cache.
+         */
+        static boolean isDeterministic() {
+            Float temperatureValue = parseTemperature();
+            return (temperatureValue != null && temperatureValue == 0) || parseSeed() != null;
+        }
+
+        private static Float parseTemperature() {
+            try {
+                return temperature == null || temperature.isBlank() ? null : Float.parseFloat(temperature.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Integer parseSeed() {
+            try {
+                return seed == null || seed.isBlank() ? null : Integer.parseInt(seed.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Sends a chat turn, taking the tool-calling path only when the tool router considers a tool call plausible
+         * and falling back to the streaming chat when the model does not call any tool.
+         */
+        public List<OllamaChatMessage> send(String message, List<OllamaChatMessage> history, OllamaAPI ollamaAPI,
+                String model, OllamaStreamHandler streamHandler, boolean useTools)
+                throws OllamaBaseException, IOException, InterruptedException, ToolInvocationException {
+            return send(message, history, ollamaAPI, model, streamHandler, useTools, null);
+        }
+
+        /**
+         * Like {@link #send(String, List, OllamaAPI, String, OllamaStreamHandler, boolean)}, also reporting the path
+         * and the tool round trip time to the given metrics turn if it is not {@code null}.
+         * <p>
+         * With a host pool the turn goes to the host the pool picks, and moves on to the next host if that one fails
+         * before anything was streamed.
+         */
+        public List<OllamaChatMessage> send(String message, List<OllamaChatMessage> history, OllamaAPI ollamaAPI,
+                String model, OllamaStreamHandler streamHandler, boolean useTools, ChatMetrics.Turn metricsTurn)
+                throws OllamaBaseException, IOException, InterruptedException, ToolInvocationException {
+            OllamaHostPool pool = hostPool;
+            if (pool == null) {
+                return sendTo(message, history, ollamaAPI, model, streamHandler, useTools, metricsTurn);
+            }
+            String sessionKey = sessionKeySupplier.get();
+            AtomicBoolean streamed = new AtomicBoolean(false);
+            OllamaStreamHandler trackingHandler = chunk -> {
+                streamed.set(true);
+                streamHandler.accept(chunk);
+            };
+            Set<OllamaHostPool.Host> failedHosts = new HashSet<>();
+            while (true) {
+                OllamaHostPool.Host host = pool.acquire(model, sessionKey, failedHosts);
+                if (host == null) {
+                    throw new IOException("No Ollama host has the model " + model);
+                }
+                try {
+                    List<OllamaChatMessage> updatedHistory = sendTo(message, history, host.getApi(), model,
+                            trackingHandler, useTools, metricsTurn);
+                    pool.succeeded(host, sessionKey);
+                    return updatedHistory;
+                } catch (IOException | OllamaBaseException e) {
+                    // a partly streamed answer cannot be repeated, and an interrupt means the turn was cancelled
+                    if (streamed.get() || Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    pool.failed(host, e);
+                    failedHosts.add(host);
+                    if (!pool.hasAlternative(model, failedHosts)) {
+                        throw e;
+                    }
+                    logger.info("Retrying the turn on another host");
+                } finally {
+                    pool.release(host);
+                }
+            }
         }
 
+        private List<OllamaChatMessage> sendTo(String message, List<OllamaChatMessage> history, OllamaAPI ollamaAPI,
+                String model, OllamaStreamHandler streamHandler, boolean useTools, ChatMetrics.Turn metricsTurn)
+                throws OllamaBaseException, IOException, InterruptedException, ToolInvocationException {
+            long startNanos = System.nanoTime();
+            Tools.ToolSpecification tool = useTools ? toolRouter.route(message) : null;
+            long routingNanos = System.nanoTime() - startNanos;
+            ToolRouter.Path path = ToolRouter.Path.CHAT;
+            List<OllamaChatMessage> updatedHistory = null;
+            if (tool != null) {
+                path = ToolRouter.Path.TOOLS;
+                long toolStartNanos = System.nanoTime();
+                updatedHistory = chatWithTools(message, history, ollamaAPI, model, streamHandler);
+                if (metricsTurn != null) {
+                    metricsTurn.toolTime(System.nanoTime() - toolStartNanos);
+                }
+                if (updatedHistory == null) {
+                    path = ToolRouter.Path.TOOLS_THEN_CHAT;
+                }
+            }
+            if (updatedHistory == null) {
+                updatedHistory = chat(message, history, ollamaAPI, model, streamHandler);
+            }
+            ToolRouter.RouteReport report = new ToolRouter.RouteReport(path,
+                    tool != null ? tool.getFunctionName() : null, routingNanos,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+            logger.info("Chat turn took path {}", report);
+            if (metricsTurn != null) {
+                metricsTurn.setPath(path.toString());
+            }
+            routeListener.accept(report);
+            return updatedHistory;
+        }
+
+        /**
+         * Runs the prompt through the registered tools. Returns {@code null} if the model did not call any tool.
+         */
         public List<OllamaChatMessage> chatWithTools(String message, List<OllamaChatMessage> history,
                 OllamaAPI ollamaAPI,
                 String model, OllamaStreamHandler streamHandler)
                 throws OllamaBaseException, IOException, InterruptedException, ToolInvocationException {
-            Tools.ToolSpecification weatherToolSpec = getWeatherToolSpec(openWeatherMapApiKey);
-            ollamaAPI.registerTool(weatherToolSpec);
-            for (OllamaToolsResult.ToolResult r : ollamaAPI.generateWithTools(model, new Tools.PromptBuilder()
-                    .withToolSpecification(weatherToolSpec)
+            toolRouter.ensureRegistered(ollamaAPI, model);
+            Tools.PromptBuilder promptBuilder = new Tools.PromptBuilder();
+            toolRouter.getToolSpecifications().forEach(promptBuilder::withToolSpecification);
+            List<OllamaToolsResult.ToolResult> toolResults = ollamaAPI.generateWithTools(model, promptBuilder
                     .withPrompt(message + "\n\nMake sure you respond ONLY in a valid JSON format.")
-                    .build(), new OptionsBuilder().build()).getToolResults()) {
-                String systemResponse = (String) r.getResult();
+                    .build(), requestOptions(model)).getToolResults();
+            if (toolResults == null || toolResults.isEmpty()) {
+                return null;
+            }
+            // streamed like a chat response, as the cumulative text of the results so far
+            StringBuilder streamedResults = new StringBuilder();
+            for (OllamaToolsResult.ToolResult r : toolResults) {
+                // the tool calls were started in parallel, collect them in order
+                String systemResponse = String.valueOf(toolRuntime.resolve(r.getFunctionName(), r.getResult()));
                 OllamaChatMessage userMessage = new OllamaChatMessage(OllamaChatMessageRole.USER, message);
                 OllamaChatMessage systemMessage = new OllamaChatMessage(OllamaChatMessageRole.SYSTEM, systemResponse);
                 history.add(userMessage);
                 history.add(systemMessage);
-                streamHandler.accept(systemResponse);
+                if (streamedResults.length() > 0) {
+                    streamedResults.append("\n\n");
+                }
+                streamHandler.accept(streamedResults.append(systemResponse).toString());
             }
             return history;
         }
     }
 
     public static Tools.ToolSpecification getWeatherToolSpec(String openWeatherMapApiKey) {
+        return getWeatherToolSpec(openWeatherMapApiKey, openWeatherMapBaseUrl, toolRuntime);
+    }
+
+    public static Tools.ToolSpecification getWeatherToolSpec(String openWeatherMapApiKey, String baseUrl,
+            ToolRuntime toolRuntime) {
         return Tools.ToolSpecification.builder()
                 .functionName("weather-reporter")
                 .functionDescription(
                         "You are a tool who simply finds the city name from the user's message input/query about weather.")
-                .toolFunction(new WeatherToolFunction(openWeatherMapApiKey))
+                .toolFunction(toolRuntime.wrap("weather-reporter",
+                        new WeatherToolFunction(openWeatherMapApiKey, baseUrl, toolRuntime)))
                 .toolPrompt(
                         Tools.PromptFuncDefinition.builder()
                                 .type("prompt")
@@ -492,40 +2043,61 @@ public class Ollama4jUI {
 }
 
 class WeatherToolFunction implements ToolFunction {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherToolFunction.class);
+
     private final String apiKey;
+    private final String baseUrl;
+    private final ToolRuntime toolRuntime;
 
-    public WeatherToolFunction(String apiKey) {
+    public WeatherToolFunction(String apiKey, String baseUrl, ToolRuntime toolRuntime) {
         this.apiKey = apiKey;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.toolRuntime = toolRuntime;
     }
 
     @Override
     public Object apply(Map<String, Object> arguments) {
-        String city = (String) arguments.get("cityName");
-        System.out.println("Finding weather for city: " + city);
+        Object cityName = arguments.get("cityName");
+        String city = cityName != null ? cityName.toString().trim() : "";
+        if (city.isEmpty()) {
+            // thrown rather than returned so the failure is not cached
+            throw new IllegalArgumentException("No city name given");
+        }
+        logger.debug("Finding weather for city: {}", city);
 
-        String url = String.format("https://api.openweathermap.org/data/2.5/weather?q=%s&appid=%s&units=metric", city,
-                this.apiKey);
+        String url = String.format("%s/data/2.5/weather?q=%s&appid=%s&units=metric", baseUrl,
+                URLEncoder.encode(city, StandardCharsets.UTF_8),
+                URLEncoder.encode(apiKey != null ? apiKey : "", StandardCharsets.UTF_8));
 
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
+                .timeout(Duration.ofMillis(toolRuntime.getToolTimeout("weather-reporter")))
                 .build();
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = toolRuntime.getHttpClient().send(request,
+                    HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() == 200) {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(response.body());
-                JsonNode main = root.path("main");
-                double temperature = main.path("temp").asDouble();
-                String description = root.path("weather").get(0).path("description").asText();
+                JsonNode root = toolRuntime.getObjectMapper().readTree(response.body());
+                JsonNode temp = root.path("main").path("temp");
+                if (!temp.isNumber()) {
+                    throw new IllegalStateException("No temperature in the weather data for " + city);
+                }
+                double temperature = temp.asDouble();
+                String description = root.path("weather").path(0).path("description").asText("");
 
-                return String.format("Weather in %s: %.1f°C, %s", city, temperature, description);
+                return description.isEmpty()
+                        ? String.format("Weather in %s: %.1f°C", city, temperature)
+                        : String.format("Weather in %s: %.1f°C, %s", city, temperature, description);
             } else {
-                return "Could not retrieve weather data for " + city + ". Status code: " + response.statusCode();
+                // thrown rather than returned so the failure is not cached
+                throw new IllegalStateException(
+                        "Could not retrieve weather data for " + city + ". Status code: " + response.statusCode());
             }
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-            return "Error retrieving weather data: " + e.getMessage();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error retrieving weather data: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrieving weather data", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.models.response.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of Ollama servers that chat turns are spread across.
+ * <p>
+ * Every host is probed periodically ({@code /api/tags}), which tells whether it is up, how long it takes to answer
+ * and which models it has. A turn goes to the host with the fewest requests in flight (then the lowest probe latency)
+ * among the healthy hosts that have the model. A conversation stays on the host its last turn succeeded on as long as
+ * that host is healthy, so the server can reuse its loaded context. When a host fails it is marked down until the next
+ * successful probe and the caller can move on to the next host.
+ */
+class OllamaHostPool {
+    private static final Logger logger = LoggerFactory.getLogger(OllamaHostPool.class);
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    static class Host {
+        private final String url;
+        private final OllamaAPI api;
+        private final OllamaRestClient restClient;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // optimistic until the first probe, so the pool is usable right away
+        private volatile boolean healthy = true;
+        private volatile long latencyMillis = -1;
+        // null until the first probe
+        private volatile Set<String> models = null;
+        private volatile String error = null;
+
+        private Host(String url, int requestTimeoutSeconds) {
+            this.url = url;
+            this.api = new OllamaAPI(url);
+            this.api.setRequestTimeoutSeconds(requestTimeoutSeconds);
+            this.restClient = new OllamaRestClient(url);
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public OllamaAPI getApi() {
+            return api;
+        }
+
+        public OllamaRestClient getRestClient() {
+            return restClient;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * The smoothed probe latency, -1 before the first successful probe.
+         */
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        private boolean mayHave(String model) {
+            Set<String> known = models;
+            return known == null || model == null || known.contains(model);
+        }
+
+        @Override
+        public String toString() {
+            return url + (healthy ? " up" : " down") + (latencyMillis >= 0 ? ", " + latencyMillis + " ms" : "")
+                    + ", " + inFlight.get() + " in flight" + (models != null ? ", " + models.size() + " models" : "")
+                    + (error != null && !healthy ? " (" + error + ")" : "");
+        }
+    }
+
+    private final List<Host> hosts;
+    private final Map<String, Host> stickyHosts = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ollama4j-host-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    OllamaHostPool(List<String> urls, int requestTimeoutSeconds) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("No Ollama hosts configured");
+        }
+        List<Host> created = new ArrayList<>();
+        for (String url : urls) {
+            created.add(new Host(url, requestTimeoutSeconds));
+        }
+        this.hosts = Collections.unmodifiableList(created);
+    }
+
+    /**
+     * Starts probing the hosts every {@code intervalSeconds}, beginning right away.
+     */
+    public void start(int intervalSeconds) {
+        prober.scheduleWithFixedDelay(this::probeAll, 0, Math.max(1, intervalSeconds), TimeUnit.SECONDS);
+    }
+
+    public List<Host> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * The first configured host, used for everything that is not routed (e.g. the model library).
+     */
+    public Host getPrimary() {
+        return hosts.get(0);
+    }
+
+    /**
+     * Adds a listener that is called on the EDT after every probe round, when a host fails and when a conversation
+     * moves to another host.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Picks the host for a turn and counts the turn as in flight on it until {@link #release(Host)}. Returns
+     * {@code null} if every host has been excluded.
+     *
+     * @param sessionKey identifies the conversation for sticky routing, {@code null} for none
+     * @param exclude    hosts that already failed this turn
+     */
+    public Host acquire(String model, String sessionKey, Collection<Host> exclude) {
+        Host host = select(model, sessionKey, exclude);
+        if (host != null) {
+            host.inFlight.incrementAndGet();
+        }
+        return host;
+    }
+
+    public void release(Host host) {
+        host.inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the host a turn would go to now, without counting it as in flight.
+     */
+    public Host peek(String model, String sessionKey) {
+        Host host = select(model, sessionKey, Set.of());
+        return host != null ? host : getPrimary();
+    }
+
+    /**
+     * Whether a host other than the excluded ones could still take the turn.
+     */
+    public boolean hasAlternative(String model, Collection<Host> exclude) {
+        return select(model, null, exclude) != null;
+    }
+
+    /**
+     * Records that a turn succeeded, which makes the conversation stick to the host.
+     */
+    public void succeeded(Host host, String sessionKey) {
+        host.healthy = true;
+        if (sessionKey != null && stickyHosts.put(sessionKey, host) != host) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Marks the host down until it passes a probe again and moves its conversations elsewhere.
+     */
+    public void failed(Host host, Exception error) {
+        logger.warn("Ollama host {} failed: {}", host.url, error.getMessage());
+        host.healthy = false;
+        host.error = error.getMessage();
+        stickyHosts.values().removeIf(sticky -> sticky == host);
+        notifyListeners();
+    }
+
+    /**
+     * Forgets the host of a conversation, e.g. when it is cleared.
+     */
+    public void endSession(String sessionKey) {
+        if (sessionKey != null) {
+            stickyHosts.remove(sessionKey);
+        }
+    }
+
+    private Host select(String model, String sessionKey, Collection<Host> exclude) {
+        Host sticky = sessionKey != null ? stickyHosts.get(sessionKey) : null;
+        if (sticky != null && sticky.healthy && sticky.mayHave(model) && !exclude.contains(sticky)) {
+            return sticky;
+        }
+        Comparator<Host> leastLoaded = Comparator.<Host>comparingInt(host -> host.inFlight.get())
+                .thenComparingLong(host -> host.latencyMillis < 0 ? Long.MAX_VALUE : host.latencyMillis);
+        Host best = null;
+        for (Host host : hosts) {
+            if (host.healthy && host.mayHave(model) && !exclude.contains(host)
+                    && (best == null || leastLoaded.compare(host, best) < 0)) {
+                best = host;
+            }
+        }
+        if (best == null) {
+            // the probes may be stale, so rather try a host that looked down than give up
+            for (Host host : hosts) {
+                if (host.mayHave(model) && !exclude.contains(host)
+                        && (best == null || leastLoaded.compare(host, best) < 0)) {
+                    best = host;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lists the models of all reachable hosts, merged by name. Fails only if no host could be reached.
+     */
+    public List<Model> listModels() throws Exception {
+        Map<String, Model> merged = new LinkedHashMap<>();
+        Exception lastError = null;
+        for (Host host : hosts) {
+            try {
+                List<Model> models = host.api.listModels();
+                Set<String> names = new HashSet<>();
+                for (Model model : models) {
+                    names.add(model.getName());
+                    merged.putIfAbsent(model.getName(), model);
+                }
+                host.models = names;
+            } catch (Exception e) {
+                logger.warn("Could not list the models of {}: {}", host.url, e.getMessage());
+                lastError = e;
+            }
+        }
+        if (merged.isEmpty() && lastError != null) {
+            throw lastError;
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private void probeAll() {
+        for (Host host : hosts) {
+            long startNanos = System.nanoTime();
+            try {
+                JsonNode tags = host.restClient.get("/api/tags", PROBE_TIMEOUT);
+                long latency = (System.nanoTime() - startNanos) / 1_000_000;
+                Set<String> names = new HashSet<>();
+                for (JsonNode model : tags.path("models")) {
+                    names.add(model.path("name").asText());
+                }
+                host.models = names;
+                host.latencyMillis = host.latencyMillis < 0 ? latency : (3 * host.latencyMillis + latency) / 4;
+                if (!host.healthy) {
+                    logger.info("Ollama host {} is up again", host.url);
+                }
+                host.healthy = true;
+                host.error = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (host.healthy) {
+                    logger.warn("Ollama host {} is down: {}", host.url, e.getMessage());
+                }
+                host.healthy = false;
+                host.error = e.getMessage();
+            }
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        SwingUtilities.invokeLater(() -> listeners.forEach(Runnable::run));
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Minimal JSON client for the Ollama REST endpoints the ollama4j API does not expose (e.g. {@code /api/ps}).
+ */
+class OllamaRestClient {
+    private final String host;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    interface LineHandler {
+        void accept(JsonNode line) throws IOException;
+    }
+
+    OllamaRestClient(String host) {
+        this.host = host.endsWith("/") ? host.substring(0, host.length() - 1) : host;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public JsonNode get(String path, Duration timeout) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(host + path)).timeout(timeout).GET().build());
+    }
+
+    public JsonNode post(String path, Map<String, Object> body, Duration timeout)
+            throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(host + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build());
+    }
+
+    /**
+     * Posts a request whose response is streamed as JSON lines (e.g. {@code /api/pull}) and hands each line to the
+     * handler as it arrives. A line with an {@code error} field fails the call. There is no overall timeout; a call
+     * that is no longer wanted is aborted by closing the response stream handed to {@code onOpen}, which can be done
+     * from any thread.
+     */
+    public void postStream(String path, Map<String, Object> body, Consumer<Closeable> onOpen, LineHandler handler)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(host + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        onOpen.accept(response.body());
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                StringBuilder error = new StringBuilder();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    error.append(line);
+                }
+                throw new IOException(path + " returned " + response.statusCode() + ": " + error);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                if (node.hasNonNull("error")) {
+                    throw new IOException(node.path("error").asText());
+                }
+                handler.accept(node);
+            }
+        }
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(request.uri().getPath() + " returned " + response.statusCode() + ": "
+                    + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk cache of chat responses for deterministic requests (temperature 0 or a fixed seed).
+ * <p>
+ * A response is keyed on a SHA-256 hash of the model, the request options, the messages sent and the prompt, and is
+ * stored as one file per key. The files are evicted least recently used first once their total size exceeds the
+ * limit; a hit touches the file's modification time so the order survives restarts.
+ */
+class ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final String SUFFIX = ".txt";
+
+    private final File directory;
+    private final long maxBytes;
+    // key -> size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    ResponseCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                entries.put(file.getName().substring(0, file.getName().length() - SUFFIX.length()), file.length());
+                totalBytes += file.length();
+            }
+        }
+        evict();
+        logger.debug("Response cache has {} entries ({} bytes)", entries.size(), totalBytes);
+    }
+
+    /**
+     * Computes the cache key of a request.
+     */
+    static String key(String model, Map<String, Object> options, List<OllamaChatMessage> messages, String prompt) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, model);
+        update(digest, String.valueOf(options == null ? null : new TreeMap<>(options)));
+        for (OllamaChatMessage message : messages) {
+            update(digest, message.getRole().getRoleName());
+            update(digest, message.getContent());
+        }
+        update(digest, prompt);
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        // length-prefixed so that different splits of the same text hash differently
+        digest.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+        digest.update(bytes);
+    }
+
+    /**
+     * Returns the cached response, or {@code null} on a miss.
+     */
+    public String get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        File file = file(key);
+        try {
+            String response = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            file.setLastModified(System.currentTimeMillis());
+            hits.incrementAndGet();
+            return response;
+        } catch (IOException e) {
+            logger.warn("Could not read cached response {}: {}", key, e.getMessage());
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    public void put(String key, String response) {
+        File file = file(key);
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory);
+            }
+            File tempFile = File.createTempFile(key, ".tmp", directory);
+            Files.writeString(tempFile.toPath(), response, StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not cache response {}: {}", key, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Long previous = entries.put(key, file.length());
+            totalBytes += file.length() - (previous != null ? previous : 0);
+            evict();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * A one-line summary of the hit rate and size, for the UI.
+     */
+    public String describe() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return String.format("Cache: %d hits / %d lookups (%.0f%%), %d entries, %s", hitCount, total,
+                total == 0 ? 0.0 : 100.0 * hitCount / total, getEntryCount(),
+                Ollama4jUI.humanReadableSize(getSizeBytes()));
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            if (!file(eldest.getKey()).delete()) {
+                logger.warn("Could not delete cached response {}", eldest.getKey());
+            }
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+}
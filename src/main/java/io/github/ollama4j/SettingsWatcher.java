@@ -0,0 +1,78 @@
+package io.github.ollama4j;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the settings file and calls back on the EDT when it changes.
+ * <p>
+ * The directory of the file is watched, as editors often replace a file instead of writing it in place. A burst of
+ * events (e.g. truncate, then write) is collapsed into one callback once the file has been quiet for a moment.
+ */
+class SettingsWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsWatcher.class);
+    private static final long QUIET_MILLIS = 200;
+
+    private final File file;
+    private final Runnable onChange;
+    private WatchService watchService;
+
+    SettingsWatcher(File file, Runnable onChange) {
+        this.file = file.getAbsoluteFile();
+        this.onChange = onChange;
+    }
+
+    public void start() throws IOException {
+        Path directory = file.getParentFile().toPath();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(this::watch, "ollama4j-settings-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.debug("Watching {} for changes", file);
+    }
+
+    public void stop() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Could not stop watching {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.context() instanceof Path
+                                && ((Path) event.context()).toString().equals(file.getName());
+                    }
+                    key.reset();
+                } while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                if (changed) {
+                    logger.info("{} changed, reloading settings", file.getName());
+                    SwingUtilities.invokeLater(onChange);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+}
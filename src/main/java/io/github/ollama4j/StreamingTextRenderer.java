@@ -0,0 +1,103 @@
+package io.github.ollama4j;
+
+import javax.swing.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Appends streamed text to a transcript without copying what has already been rendered.
+ * <p>
+ * Chunks may be appended from any thread. Chunks that arrive between two flushes are coalesced and handed to the
+ * sink in a single EDT update, either when the flush interval elapses or as soon as the backlog grows beyond
+ * {@code maxBacklogChars}.
+ * <p>
+ * The time from the oldest queued chunk to the sink returning (coalescing delay, EDT queueing and rendering) is reported
+ * to the render lag listener on every flush.
+ */
+class StreamingTextRenderer {
+    private final Consumer<String> sink;
+    private final int flushIntervalMillis;
+    private final int maxBacklogChars;
+    private final Timer flushTimer;
+
+    private final StringBuilder pending = new StringBuilder();
+    private boolean flushScheduled = false;
+    private boolean urgentFlushPosted = false;
+    private long pendingSinceNanos = 0;
+    private volatile LongConsumer renderLagListener = lagNanos -> {
+    };
+
+    /**
+     * @param sink receives the coalesced text on the EDT
+     */
+    StreamingTextRenderer(Consumer<String> sink, int flushIntervalMillis, int maxBacklogChars) {
+        this.sink = sink;
+        this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+        this.maxBacklogChars = Math.max(1, maxBacklogChars);
+        this.flushTimer = new Timer(this.flushIntervalMillis, e -> flush());
+        this.flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Called on the EDT after each flush with the time the flushed text spent waiting to be rendered.
+     */
+    public void setRenderLagListener(LongConsumer renderLagListener) {
+        this.renderLagListener = renderLagListener;
+    }
+
+    /**
+     * Queues text to be handed to the sink. Safe to call from any thread.
+     */
+    public void append(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        boolean startTimer = false;
+        boolean flushNow = false;
+        synchronized (pending) {
+            if (pending.length() == 0) {
+                pendingSinceNanos = System.nanoTime();
+            }
+            pending.append(text);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                if (flushIntervalMillis == 0) {
+                    flushNow = true;
+                } else {
+                    startTimer = true;
+                }
+            }
+            if (!urgentFlushPosted && pending.length() >= maxBacklogChars) {
+                urgentFlushPosted = true;
+                flushNow = true;
+            }
+        }
+        if (flushNow) {
+            SwingUtilities.invokeLater(this::flush);
+        } else if (startTimer) {
+            flushTimer.restart();
+        }
+    }
+
+    /**
+     * Hands everything queued so far to the sink. Must be called on the EDT; a no-op when nothing is queued.
+     */
+    public void flush() {
+        String text;
+        long queuedAtNanos;
+        synchronized (pending) {
+            // stopped before clearing the flag, so a chunk appended right after this block restarts a live timer
+            flushTimer.stop();
+            flushScheduled = false;
+            urgentFlushPosted = false;
+            if (pending.length() == 0) {
+                return;
+            }
+            text = pending.toString();
+            queuedAtNanos = pendingSinceNanos;
+            pending.setLength(0);
+        }
+        sink.accept(text);
+        renderLagListener.accept(System.nanoTime() - queuedAtNanos);
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.tools.Tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides locally whether a prompt plausibly needs one of the registered tools.
+ * <p>
+ * Keywords are derived once from each tool specification: the words of the tool's function name are strong keywords,
+ * the words of the prompt function and parameter names and of all descriptions are weak ones. Those schema words are
+ * generic (e.g. {@code cityName}), so on their own they would send ordinary questions to the slower tools path. A
+ * prompt is routed to the tools path when it mentions a strong keyword or at least two weak ones; everything else goes
+ * straight to the streaming chat.
+ */
+class ToolRouter {
+    private static final int WEAK_MATCHES_REQUIRED = 2;
+    private static final Set<String> IGNORED_WORDS = Set.of("a", "an", "the", "and", "or", "of", "to", "in", "on",
+            "for", "from", "with", "by", "is", "are", "be", "you", "your", "who", "what", "which", "that", "this",
+            "it", "its", "as", "at", "about", "e", "g", "eg", "get", "set", "name", "names", "user", "users", "tool",
+            "tools", "function", "prompt", "message", "input", "query", "simply", "find", "finds", "type", "object",
+            "string", "value");
+
+    private final List<Tools.ToolSpecification> toolSpecifications;
+    private final Map<Tools.ToolSpecification, Keywords> keywords = new LinkedHashMap<>();
+    // the models the tools have been registered for, per API instance (one per host of the pool)
+    private final Map<OllamaAPI, Set<String>> registeredModels = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    enum Path {
+        CHAT("chat"),
+        TOOLS("tools"),
+        TOOLS_THEN_CHAT("tools, no call, chat");
+
+        private final String label;
+
+        Path(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Which path a chat turn took and how long it took.
+     */
+    static class RouteReport {
+        private final Path path;
+        private final String toolName;
+        private final long routingNanos;
+        private final long elapsedMillis;
+
+        RouteReport(Path path, String toolName, long routingNanos, long elapsedMillis) {
+            this.path = path;
+            this.toolName = toolName;
+            this.routingNanos = routingNanos;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public long getRoutingNanos() {
+            return routingNanos;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return path + (toolName != null ? " (" + toolName + ")" : "") + " in " + elapsedMillis + " ms";
+        }
+    }
+
+    private static class Keywords {
+        private final Set<String> strong = new HashSet<>();
+        private final Set<String> weak = new HashSet<>();
+    }
+
+    ToolRouter(List<Tools.ToolSpecification> toolSpecifications) {
+        this.toolSpecifications = Collections.unmodifiableList(new ArrayList<>(toolSpecifications));
+        for (Tools.ToolSpecification spec : this.toolSpecifications) {
+            keywords.put(spec, extractKeywords(spec));
+        }
+    }
+
+    public List<Tools.ToolSpecification> getToolSpecifications() {
+        return toolSpecifications;
+    }
+
+    /**
+     * Registers the tool specifications with the API the first time the given model uses them through it.
+     */
+    public void ensureRegistered(OllamaAPI ollamaAPI, String model) {
+        if (registeredModels.computeIfAbsent(ollamaAPI, api -> ConcurrentHashMap.newKeySet()).add(model)) {
+            toolSpecifications.forEach(ollamaAPI::registerTool);
+        }
+    }
+
+    /**
+     * Returns the tool that best matches the prompt, or {@code null} if no tool call is plausible.
+     */
+    public Tools.ToolSpecification route(String prompt) {
+        Set<String> words = words(prompt);
+        Tools.ToolSpecification best = null;
+        int bestScore = 0;
+        for (Map.Entry<Tools.ToolSpecification, Keywords> entry : keywords.entrySet()) {
+            int strongMatches = 0;
+            int weakMatches = 0;
+            for (String word : words) {
+                if (entry.getValue().strong.contains(word)) {
+                    strongMatches++;
+                } else if (entry.getValue().weak.contains(word)) {
+                    weakMatches++;
+                }
+            }
+            if (strongMatches == 0 && weakMatches < WEAK_MATCHES_REQUIRED) {
+                continue;
+            }
+            int score = strongMatches * WEAK_MATCHES_REQUIRED + weakMatches;
+            if (score > bestScore) {
+                best = entry.getKey();
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static Keywords extractKeywords(Tools.ToolSpecification spec) {
+        Keywords result = new Keywords();
+        result.strong.addAll(words(spec.getFunctionName()));
+        result.weak.addAll(words(spec.getFunctionDescription()));
+        Tools.PromptFuncDefinition toolPrompt = spec.getToolPrompt();
+        if (toolPrompt != null && toolPrompt.getFunction() != null) {
+            Tools.PromptFuncDefinition.PromptFuncSpec function = toolPrompt.getFunction();
+            result.weak.addAll(words(function.getName()));
+            result.weak.addAll(words(function.getDescription()));
+            if (function.getParameters() != null && function.getParameters().getProperties() != null) {
+                function.getParameters().getProperties().forEach((name, property) -> {
+                    result.weak.addAll(words(name));
+                    result.weak.addAll(words(property.getDescription()));
+                });
+            }
+        }
+        result.weak.removeAll(result.strong);
+        return result;
+    }
+
+    /**
+     * Splits text into lower-case words, also at camelCase boundaries, dropping filler words and plural endings.
+     */
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String spaced = text.replaceAll("([a-z])([A-Z])", "$1 $2").toLowerCase(Locale.ROOT);
+        for (String word : spaced.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+                word = word.substring(0, word.length() - 1);
+            }
+            if (word.length() > 1 && !IGNORED_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ollama4j.tools.ToolFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared runtime for {@link ToolFunction}s.
+ * <p>
+ * Tools get a shared, connection-pooling {@link HttpClient} and {@link ObjectMapper} instead of creating their own per
+ * call. Functions registered through {@link #wrap(String, ToolFunction)} run on a small thread pool: the wrapper
+ * returns a {@link CompletableFuture} right away, so when the model asks for several tool calls in one turn they all
+ * run in parallel, and {@link #resolve(String, Object)} collects each result with the tool's timeout applied.
+ * Successful results are cached for {@code cacheTtlMillis}, keyed on the tool name and its normalized arguments.
+ */
+class ToolRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(ToolRuntime.class);
+    private static final int MAX_CACHE_ENTRIES = 256;
+    private static final int MAX_THREADS = 8;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor;
+    private final long defaultTimeoutMillis;
+    private final Map<String, Long> toolTimeoutMillis = new ConcurrentHashMap<>();
+    private final long cacheTtlMillis;
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    private static class CacheEntry {
+        private final Object result;
+        private final long expiresAtMillis;
+
+        private CacheEntry(Object result, long expiresAtMillis) {
+            this.result = result;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    ToolRuntime(long defaultTimeoutMillis, long cacheTtlMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.max(1, defaultTimeoutMillis)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        AtomicInteger threadCount = new AtomicInteger();
+        // callers run the tool themselves once all threads are busy
+        this.executor = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ollama4j-tool-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public void setToolTimeout(String toolName, long timeoutMillis) {
+        toolTimeoutMillis.put(toolName, timeoutMillis);
+    }
+
+    public long getToolTimeout(String toolName) {
+        return toolTimeoutMillis.getOrDefault(toolName, defaultTimeoutMillis);
+    }
+
+    /**
+     * Wraps a tool function so it runs asynchronously on this runtime with caching and a timeout. The wrapped
+     * function returns a {@link CompletableFuture}; pass it to {@link #resolve(String, Object)} to get the result.
+     */
+    public ToolFunction wrap(String toolName, ToolFunction function) {
+        return arguments -> {
+            String key = cacheKey(toolName, arguments);
+            CacheEntry cached = cache.get(key);
+            if (cached != null && cached.expiresAtMillis > System.currentTimeMillis()) {
+                logger.debug("Tool cache hit for {}", key);
+                return CompletableFuture.completedFuture(cached.result);
+            }
+            return CompletableFuture.supplyAsync(() -> function.apply(arguments), executor)
+                    .orTimeout(getToolTimeout(toolName), TimeUnit.MILLISECONDS)
+                    .thenApply(result -> {
+                        putInCache(key, result);
+                        return result;
+                    });
+        };
+    }
+
+    /**
+     * Waits for a result returned by a wrapped tool function. Failures and timeouts are turned into an error message
+     * for the model, as the tools did before. Results that are not futures are returned unchanged.
+     */
+    public Object resolve(String toolName, Object result) {
+        if (!(result instanceof CompletableFuture)) {
+            return result;
+        }
+        try {
+            return ((CompletableFuture<?>) result).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                logger.warn("Tool {} timed out after {} ms", toolName, getToolTimeout(toolName));
+                return "Tool " + toolName + " timed out after " + getToolTimeout(toolName) + " ms";
+            }
+            logger.error("Tool {} failed: {}", toolName, cause.getMessage());
+            return "Error running tool " + toolName + ": " + cause.getMessage();
+        }
+    }
+
+    private void putInCache(String key, Object result) {
+        if (cacheTtlMillis <= 0 || result == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            cache.values().removeIf(entry -> entry.expiresAtMillis <= now);
+            Iterator<String> keys = cache.keySet().iterator();
+            while (cache.size() >= MAX_CACHE_ENTRIES && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        cache.put(key, new CacheEntry(result, now + cacheTtlMillis));
+    }
+
+    /**
+     * Builds a cache key that does not depend on argument order, surrounding whitespace or the case of text values.
+     */
+    static String cacheKey(String toolName, Map<String, Object> arguments) {
+        Map<String, String> normalized = new TreeMap<>();
+        if (arguments != null) {
+            arguments.forEach((name, value) -> normalized.put(name, value instanceof String
+                    ? ((String) value).trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT)
+                    : String.valueOf(value)));
+        }
+        return toolName + normalized;
+    }
+}
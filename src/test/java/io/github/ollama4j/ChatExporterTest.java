@@ -0,0 +1,48 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.ollama4j.models.chat.OllamaChatMessage;
+import io.github.ollama4j.models.chat.OllamaChatMessageRole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatExporterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exportsAJournaledChatWithTheTimesItsMessagesWereSentAndReceived() throws Exception {
+        ConversationStore store = new ConversationStore(tempDir.resolve("conversations").toFile());
+        ConversationStore.SessionInfo session = store.newSession("stub-model:latest", "Hello");
+        long sentAtMillis = System.currentTimeMillis() - 60_000;
+        store.append(session, List.of(new OllamaChatMessage(OllamaChatMessageRole.USER, "Hello"),
+                new OllamaChatMessage(OllamaChatMessageRole.ASSISTANT, "Hi there")), sentAtMillis);
+        store.sync().get(10, TimeUnit.SECONDS);
+
+        File file = tempDir.resolve("chat.jsonl").toFile();
+        int exported = new ChatExporter().exportSessions(store, List.of(session), file, ChatExporter.Format.JSONL,
+                false, (done, total) -> {
+                }).result().get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, exported);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode prompt = objectMapper.readTree(lines.get(0));
+        JsonNode reply = objectMapper.readTree(lines.get(1));
+        assertEquals("Hello", prompt.path("content").asText());
+        assertEquals(sentAtMillis, prompt.path("timestamp").asLong(-1));
+        assertEquals("Hi there", reply.path("content").asText());
+        assertTrue(reply.path("timestamp").asLong(-1) > sentAtMillis);
+    }
+}
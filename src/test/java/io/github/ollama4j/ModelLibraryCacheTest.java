@@ -0,0 +1,152 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.ollama4j.models.response.LibraryModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelLibraryCacheTest {
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @TempDir
+    Path tempDir;
+
+    private StubOllamaServer stub;
+    private File cacheFile;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = new StubOllamaServer(1, 0);
+        cacheFile = tempDir.resolve("model-library.tsv").toFile();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void fetchesAndCachesTheListingWhenThereIsNoCache() throws Exception {
+        Events events = new Events();
+        new ModelLibraryCache(cacheFile, fetchFromStub(), HOUR_MILLIS).load(events);
+
+        Event fetched = events.next();
+        assertFalse(fetched.fromCache);
+        assertEquals(List.of(StubOllamaServer.MODEL), fetched.names);
+        assertTrue(cacheFile.exists());
+        assertEquals(fetched.fetchedAtMillis, new ModelLibraryCache(cacheFile, fetchFromStub(), HOUR_MILLIS)
+                .read().fetchedAtMillis);
+    }
+
+    @Test
+    void servesTheStaleCopyWhenRevalidationFails() throws Exception {
+        Events fetchedEvents = new Events();
+        new ModelLibraryCache(cacheFile, fetchFromStub(), HOUR_MILLIS).load(fetchedEvents);
+        fetchedEvents.next();
+        stub.close();
+
+        // a max age of 0 makes the cached copy stale, so it is revalidated against the stopped server
+        Events events = new Events();
+        new ModelLibraryCache(cacheFile, fetchFromStub(), 0).load(events);
+
+        Event cached = events.next();
+        assertTrue(cached.fromCache);
+        assertEquals(List.of(StubOllamaServer.MODEL), cached.names);
+        Event failed = events.next();
+        assertNotNull(failed.error);
+        assertTrue(failed.hasCachedCopy);
+        assertEquals(cached.fetchedAtMillis, new ModelLibraryCache(cacheFile, fetchFromStub(), 0)
+                .read().fetchedAtMillis, "a failed revalidation must keep the cached copy");
+    }
+
+    @Test
+    void doesNotRevalidateAFreshCopy() throws Exception {
+        Events fetchedEvents = new Events();
+        new ModelLibraryCache(cacheFile, fetchFromStub(), HOUR_MILLIS).load(fetchedEvents);
+        fetchedEvents.next();
+        stub.close();
+
+        Events events = new Events();
+        new ModelLibraryCache(cacheFile, fetchFromStub(), HOUR_MILLIS).load(events);
+
+        assertTrue(events.next().fromCache);
+        assertNull(events.poll(500), "a fresh cached copy must not be fetched again");
+    }
+
+    /**
+     * Lists the models of the stub the way the library listing is fetched, so stopping the stub makes fetching fail.
+     */
+    private Callable<List<LibraryModel>> fetchFromStub() {
+        OllamaRestClient client = new OllamaRestClient(stub.getHost());
+        return () -> {
+            List<LibraryModel> models = new ArrayList<>();
+            for (JsonNode entry : client.get("/api/tags", Duration.ofSeconds(5)).path("models")) {
+                LibraryModel model = new LibraryModel();
+                model.setName(entry.path("name").asText());
+                model.setPopularTags(List.of("latest"));
+                models.add(model);
+            }
+            return models;
+        };
+    }
+
+    private static class Event {
+        List<String> names;
+        long fetchedAtMillis;
+        boolean fromCache;
+        Exception error;
+        boolean hasCachedCopy;
+    }
+
+    private static class Events implements ModelLibraryCache.Listener {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void libraryLoaded(List<LibraryModel> models, long fetchedAtMillis, boolean fromCache) {
+            Event event = new Event();
+            event.names = new ArrayList<>();
+            for (LibraryModel model : models) {
+                event.names.add(model.getName());
+            }
+            event.fetchedAtMillis = fetchedAtMillis;
+            event.fromCache = fromCache;
+            events.add(event);
+        }
+
+        @Override
+        public void libraryFailed(Exception error, boolean hasCachedCopy) {
+            Event event = new Event();
+            event.error = error;
+            event.hasCachedCopy = hasCachedCopy;
+            events.add(event);
+        }
+
+        Event next() throws InterruptedException {
+            Event event = poll(10_000);
+            assertNotNull(event, "no listener call within 10 s");
+            return event;
+        }
+
+        Event poll(long timeoutMillis) throws InterruptedException {
+            return events.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
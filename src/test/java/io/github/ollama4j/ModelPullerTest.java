@@ -0,0 +1,111 @@
+package io.github.ollama4j;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ModelPullerTest {
+    private static final String PULLED_MODEL = "llama3.2:1b";
+    // two layers, one progress line per chunk and one for the start of each layer
+    private static final long PROGRESS_LINES = 2 * (StubOllamaServer.PULL_LAYER_BYTES
+            / StubOllamaServer.PULL_CHUNK_BYTES + 1);
+
+    private StubOllamaServer stub;
+
+    @AfterEach
+    void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void pullsAModelAndCoalescesItsProgress() throws Exception {
+        stub = new StubOllamaServer(1, 200);
+        OllamaRestClient client = new OllamaRestClient(stub.getHost());
+        Updates updates = new Updates();
+
+        ModelPuller.Pull pull = new ModelPuller(2, 250).pull(client, PULLED_MODEL, updates);
+        pull.result().get(30, TimeUnit.SECONDS);
+
+        assertEquals(ModelPuller.State.DONE, pull.getState());
+        assertEquals(2 * StubOllamaServer.PULL_LAYER_BYTES, pull.getTotalBytes());
+        assertEquals(pull.getTotalBytes(), pull.getCompletedBytes());
+        assertTrue(modelsOn(client).contains(PULLED_MODEL));
+        updates.await(() -> updates.states.contains(ModelPuller.State.DONE));
+        assertTrue(updates.states.size() < PROGRESS_LINES / 4,
+                updates.states.size() + " listener calls for " + PROGRESS_LINES + " progress lines");
+    }
+
+    @Test
+    void cancelAbortsARunningPullAndDropsAQueuedOne() throws Exception {
+        // about 6 s for the whole pull, so it is still running when cancelled
+        stub = new StubOllamaServer(1, 20);
+        OllamaRestClient client = new OllamaRestClient(stub.getHost());
+        ModelPuller puller = new ModelPuller(1, 50);
+        Updates updates = new Updates();
+
+        ModelPuller.Pull running = puller.pull(client, PULLED_MODEL, updates);
+        ModelPuller.Pull queued = puller.pull(client, "qwen2.5:0.5b", new Updates());
+        assertSame(running, puller.pull(client, PULLED_MODEL, new Updates()), "pulling again joins the running pull");
+        updates.await(() -> running.getCompletedBytes() > 0);
+        assertEquals(ModelPuller.State.QUEUED, queued.getState(), "only one pull may run at a time");
+
+        queued.cancel();
+        assertEquals(ModelPuller.State.CANCELLED, queued.getState());
+        long startNanos = System.nanoTime();
+        running.cancel();
+        assertThrows(CancellationException.class, () -> running.result().get(5, TimeUnit.SECONDS));
+        long cancelMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        assertEquals(ModelPuller.State.CANCELLED, running.getState());
+        assertTrue(running.getCompletedBytes() < 2 * StubOllamaServer.PULL_LAYER_BYTES);
+        assertTrue(cancelMillis < 1000, "cancelling took " + cancelMillis + " ms");
+        List<String> models = modelsOn(client);
+        assertFalse(models.contains(PULLED_MODEL), "the cancelled pull must not finish on the server");
+        assertFalse(models.contains("qwen2.5:0.5b"), "the queued pull must never start");
+        updates.await(() -> updates.states.contains(ModelPuller.State.CANCELLED));
+    }
+
+    private static List<String> modelsOn(OllamaRestClient client) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (JsonNode model : client.get("/api/tags", Duration.ofSeconds(5)).path("models")) {
+            names.add(model.path("name").asText());
+        }
+        return names;
+    }
+
+    private static class Updates implements ModelPuller.Listener {
+        final List<ModelPuller.State> states = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void pullUpdated(ModelPuller.Pull pull) {
+            states.add(pull.getState());
+        }
+
+        void await(BooleanSupplier condition) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!condition.getAsBoolean()) {
+                if (System.currentTimeMillis() > deadline) {
+                    fail("no matching update within 10 s, got " + states);
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+}
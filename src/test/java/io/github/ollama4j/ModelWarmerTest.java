@@ -0,0 +1,40 @@
+package io.github.ollama4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ModelWarmerTest {
+    @Test
+    void givesBareSecondsAUnitTheServerAccepts() {
+        assertEquals("300s", ModelWarmer.normalizeKeepAlive(" 300 "));
+        assertEquals("-1s", ModelWarmer.normalizeKeepAlive("-1"));
+        assertEquals("1.5s", ModelWarmer.normalizeKeepAlive("1.5"));
+        assertEquals("1h30m", ModelWarmer.normalizeKeepAlive("1h30m"));
+        assertEquals("500ms", ModelWarmer.normalizeKeepAlive("500ms"));
+        assertEquals("", ModelWarmer.normalizeKeepAlive(" "));
+        assertNull(ModelWarmer.normalizeKeepAlive("5 minutes"));
+        assertNull(ModelWarmer.normalizeKeepAlive("30x"));
+    }
+
+    @Test
+    void profilesSendNormalizedKeepAliveValues() {
+        Properties properties = new Properties();
+        properties.setProperty("profile.fast.keep_alive", "300");
+        properties.setProperty("profile.slow.keep_alive", "forever");
+        properties.setProperty("profile.slow.num_ctx", "2048");
+
+        assertEquals("300s", ModelProfile.parseProfiles(properties).get("fast").getKeepAlive());
+        assertNull(ModelProfile.parseProfiles(properties).get("slow").getKeepAlive());
+    }
+
+    @Test
+    void parsesTheDurationsItSends() {
+        assertEquals(300_000, ModelWarmer.parseKeepAliveMillis(ModelWarmer.normalizeKeepAlive("300")));
+        assertEquals(5_400_000, ModelWarmer.parseKeepAliveMillis("1h30m"));
+        assertEquals(-1, ModelWarmer.parseKeepAliveMillis("-1s"));
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.ollama4j;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class OllamaHostPoolTest {
+    private static final String MODEL = StubOllamaServer.MODEL;
+
+    private StubOllamaServer first;
+    private StubOllamaServer second;
+    private OllamaHostPool pool;
+
+    @BeforeEach
+    void startStubs() throws Exception {
+        first = new StubOllamaServer(1, 0);
+        second = new StubOllamaServer(1, 0);
+        pool = new OllamaHostPool(List.of(first.getHost(), second.getHost()), 10);
+    }
+
+    @AfterEach
+    void stopStubs() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void keepsAConversationOnItsHostEvenWhenAnotherIsLessBusy() throws Exception {
+        startProbing();
+        OllamaHostPool.Host host = pool.acquire(MODEL, "conversation", Set.of());
+        pool.succeeded(host, "conversation");
+
+        OllamaHostPool.Host next = pool.acquire(MODEL, "conversation", Set.of());
+        assertSame(host, next, "the conversation must stay on its host");
+        assertTrue(host.getInFlight() > other(host).getInFlight());
+        assertSame(other(host), pool.acquire(MODEL, "another conversation", Set.of()),
+                "a new conversation goes to the least busy host");
+        assertSame(host, pool.peek(MODEL, "conversation"));
+    }
+
+    @Test
+    void failsOverWhenTheProbeFindsAHostDown() throws Exception {
+        startProbing();
+        OllamaHostPool.Host host = pool.acquire(MODEL, "conversation", Set.of());
+        pool.succeeded(host, "conversation");
+        pool.release(host);
+
+        stubOf(host).close();
+        await(() -> !host.isHealthy(), "the stopped host is not marked down");
+
+        OllamaHostPool.Host next = pool.acquire(MODEL, "conversation", Set.of());
+        assertSame(other(host), next, "the conversation must move to the healthy host");
+        assertTrue(other(host).isHealthy());
+        assertSame(next, pool.acquire(MODEL, null, Set.of()), "new conversations must avoid the host that is down");
+    }
+
+    @Test
+    void movesTheConversationWhenATurnFailsAndKeepsItThereAfterRecovery() throws Exception {
+        startProbing();
+        OllamaHostPool.Host host = pool.acquire(MODEL, "conversation", Set.of());
+        pool.succeeded(host, "conversation");
+        pool.release(host);
+
+        pool.failed(host, new IOException("Connection reset"));
+        OllamaHostPool.Host retry = pool.acquire(MODEL, "conversation", Set.of(host));
+        assertNotSame(host, retry);
+        pool.succeeded(retry, "conversation");
+        pool.release(retry);
+
+        // the stub of the failed host is still up, so the next probe round marks it healthy again
+        await(host::isHealthy, "the host did not recover on the next probe");
+        assertSame(retry, pool.acquire(MODEL, "conversation", Set.of()),
+                "the conversation must stay where its last turn succeeded");
+    }
+
+    @Test
+    void routesOnlyToHostsThatHaveTheModel() throws Exception {
+        startProbing();
+        assertNull(pool.acquire("missing-model:latest", null, Set.of()));
+        assertNull(pool.acquire(MODEL, null, pool.getHosts()));
+    }
+
+    private void startProbing() {
+        pool.start(1);
+        await(() -> pool.getHosts().stream().allMatch(host -> host.getLatencyMillis() >= 0),
+                "the hosts were not probed");
+    }
+
+    private OllamaHostPool.Host other(OllamaHostPool.Host host) {
+        return pool.getHosts().get(0) == host ? pool.getHosts().get(1) : pool.getHosts().get(0);
+    }
+
+    private StubOllamaServer stubOf(OllamaHostPool.Host host) {
+        return host.getUrl().equals(first.getHost()) ? first : second;
+    }
+
+    private static void await(BooleanSupplier condition, String message) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message + " within 10 s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.tools.Tools;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ToolRouterTest {
+    private final Tools.ToolSpecification weather = Ollama4jUI.getWeatherToolSpec("test-key", "http://127.0.0.1:9",
+            new ToolRuntime(1_000, 0));
+    private final ToolRouter router = new ToolRouter(List.of(weather));
+
+    @Test
+    void routesPromptsThatNameTheToolToTheTools() {
+        for (String prompt : List.of("What's the weather in Paris?", "weather report for Berlin please",
+                "Is the Weather nice in Oslo today?", "Which weather-reporter do you use for Bengaluru?")) {
+            assertSame(weather, router.route(prompt), prompt);
+        }
+    }
+
+    @Test
+    void sendsPromptsThatOnlyShareSchemaWordsToTheChat() {
+        for (String prompt : List.of("What is the biggest city in France?", "Give me the name of a city in Spain",
+                "Get the city name of the Eiffel Tower", "Write a haiku about autumn", "")) {
+            assertNull(router.route(prompt), prompt);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.ollama4j;
+
+import io.github.ollama4j.tools.ToolFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolRuntimeTest {
+    private static final String TOOL = "weather-reporter";
+
+    private StubOllamaServer stub;
+    private ToolRuntime runtime;
+    private ToolFunction weather;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = new StubOllamaServer(1, 0);
+        runtime = new ToolRuntime(5_000, 60_000);
+        weather = Ollama4jUI.getWeatherToolSpec("test-key", stub.getHost(), runtime).getToolFunction();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void cachesResultsOnNormalizedArguments() {
+        assertEquals("Weather in Paris: 21.5°C, clear sky", lookUp("Paris"));
+        assertEquals("Weather in Paris: 21.5°C, clear sky", lookUp("  PARIS "));
+        assertEquals(1, stub.getWeatherRequests());
+
+        lookUp("Berlin");
+        assertEquals(2, stub.getWeatherRequests());
+    }
+
+    @Test
+    void doesNotCacheFailures() {
+        String first = lookUp(StubOllamaServer.UNKNOWN_CITY);
+        assertTrue(first.startsWith("Error running tool " + TOOL), first);
+        lookUp(StubOllamaServer.UNKNOWN_CITY);
+        assertEquals(2, stub.getWeatherRequests());
+
+        assertTrue(lookUp("").startsWith("Error running tool " + TOOL));
+        assertEquals(2, stub.getWeatherRequests(), "a lookup without a city must not reach the server");
+    }
+
+    @Test
+    void timesOutSlowToolsWithoutCachingTheTimeout() {
+        runtime.setToolTimeout(TOOL, 200);
+        stub.setWeatherDelayMillis(3_000);
+
+        long startNanos = System.nanoTime();
+        String result = lookUp("Paris");
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        assertTrue(result.contains("timed out"), result);
+        assertTrue(elapsedMillis < 2_000, "the timeout took " + elapsedMillis + " ms");
+
+        stub.setWeatherDelayMillis(0);
+        assertEquals("Weather in Paris: 21.5°C, clear sky", lookUp("Paris"));
+        assertEquals(2, stub.getWeatherRequests());
+    }
+
+    @Test
+    void resolvesSeveralCallsInParallel() {
+        stub.setWeatherDelayMillis(500);
+
+        long startNanos = System.nanoTime();
+        // the model asks for both calls in one turn, so both are started before the first is resolved
+        Object paris = weather.apply(Map.of("cityName", "Paris"));
+        Object berlin = weather.apply(Map.of("cityName", "Berlin"));
+        assertEquals("Weather in Paris: 21.5°C, clear sky", runtime.resolve(TOOL, paris));
+        assertEquals("Weather in Berlin: 21.5°C, clear sky", runtime.resolve(TOOL, berlin));
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        assertTrue(elapsedMillis < 900, "two 500 ms lookups took " + elapsedMillis + " ms");
+    }
+
+    private String lookUp(String city) {
+        return String.valueOf(runtime.resolve(TOOL, weather.apply(Map.of("cityName", city))));
+    }
+}
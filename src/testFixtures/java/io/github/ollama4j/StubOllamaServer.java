@@ -0,0 +1,237 @@
+package io.github.ollama4j;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an Ollama server, for tests and benchmarks that must run without a model or network.
+ * <p>
+ * {@code /api/chat} replays a canned streaming response of {@code tokens} tokens, one NDJSON line per token, at
+ * {@code tokensPerSecond} (0 streams as fast as possible). The response text is the same on every call, so runs are
+ * reproducible. {@code /api/pull} streams the progress of downloading a model of two layers of
+ * {@value #PULL_LAYER_BYTES} bytes each, one progress line per {@value #PULL_CHUNK_BYTES} bytes at the same rate, after
+ * which {@code /api/tags} lists the model next to {@link #MODEL}.
+ * <p>
+ * {@code /data/2.5/weather} stands in for the OpenWeatherMap endpoint of the weather tool: it reports the same weather
+ * for every city after {@link #setWeatherDelayMillis(int)}, and 404 for {@link #UNKNOWN_CITY}.
+ */
+class StubOllamaServer implements AutoCloseable {
+    static final String MODEL = "stub-model:latest";
+    static final long PULL_LAYER_BYTES = 64L * 1024 * 1024;
+    static final long PULL_CHUNK_BYTES = 1024 * 1024;
+    static final String UNKNOWN_CITY = "Nowhere";
+    private static final Pattern PULL_MODEL = Pattern.compile("\"(?:model|name)\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] WORDS = { "The", " quick", " brown", " fox", " jumps", " over", " the", " lazy",
+            " dog", ".", " It", " was", " a", " sunny", " day", "," };
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<byte[]> chatLines;
+    private final long nanosPerToken;
+    private final List<String> models = new CopyOnWriteArrayList<>(List.of(MODEL));
+    private final AtomicInteger weatherRequests = new AtomicInteger();
+    private volatile int weatherDelayMillis = 0;
+
+    StubOllamaServer(int tokens, int tokensPerSecond) throws IOException {
+        this.chatLines = chatLines(tokens);
+        this.nanosPerToken = tokensPerSecond > 0 ? 1_000_000_000L / tokensPerSecond : 0;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-ollama");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/chat", this::chat);
+        server.createContext("/api/pull", this::pull);
+        server.createContext("/api/tags", this::tags);
+        server.createContext("/data/2.5/weather", this::weather);
+        server.start();
+    }
+
+    String getHost() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void setWeatherDelayMillis(int weatherDelayMillis) {
+        this.weatherDelayMillis = weatherDelayMillis;
+    }
+
+    /**
+     * The number of weather lookups served so far, including failed ones.
+     */
+    int getWeatherRequests() {
+        return weatherRequests.get();
+    }
+
+    /**
+     * The text the model "generates".
+     */
+    static String responseText(int tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            sb.append(WORDS[i % WORDS.length]);
+        }
+        return sb.toString();
+    }
+
+    private static List<byte[]> chatLines(int tokens) {
+        List<byte[]> lines = new ArrayList<>();
+        for (int i = 0; i < tokens; i++) {
+            lines.add(("{\"model\":\"" + MODEL + "\",\"created_at\":\"2024-01-01T00:00:00Z\",\"message\":{\"role\":"
+                    + "\"assistant\",\"content\":\"" + WORDS[i % WORDS.length] + "\"},\"done\":false}\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        lines.add(("{\"model\":\"" + MODEL + "\",\"created_at\":\"2024-01-01T00:00:00Z\",\"message\":{\"role\":"
+                + "\"assistant\",\"content\":\"\"},\"done_reason\":\"stop\",\"done\":true,\"total_duration\":1,"
+                + "\"load_duration\":1,\"prompt_eval_count\":1,\"prompt_eval_duration\":1,\"eval_count\":" + tokens
+                + ",\"eval_duration\":1}\n").getBytes(StandardCharsets.UTF_8));
+        return lines;
+    }
+
+    private void chat(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            long next = System.nanoTime();
+            for (byte[] line : chatLines) {
+                if (nanosPerToken > 0) {
+                    next += nanosPerToken;
+                    long wait;
+                    while ((wait = next - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                out.write(line);
+                out.flush();
+            }
+        }
+    }
+
+    private void pull(HttpExchange exchange) throws IOException {
+        String request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Matcher matcher = PULL_MODEL.matcher(request);
+        String model = matcher.find() ? matcher.group(1) : MODEL;
+        String name = model.contains(":") ? model : model + ":latest";
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            writeLine(out, "{\"status\":\"pulling manifest\"}");
+            long next = System.nanoTime();
+            for (String digest : List.of("sha256:stub-weights", "sha256:stub-template")) {
+                for (long completed = 0; completed <= PULL_LAYER_BYTES; completed += PULL_CHUNK_BYTES) {
+                    if (nanosPerToken > 0) {
+                        next += nanosPerToken;
+                        long wait;
+                        while ((wait = next - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    writeLine(out, "{\"status\":\"pulling " + digest.substring(7) + "\",\"digest\":\"" + digest
+                            + "\",\"total\":" + PULL_LAYER_BYTES + ",\"completed\":" + completed + "}");
+                }
+            }
+            writeLine(out, "{\"status\":\"verifying sha256 digest\"}");
+            writeLine(out, "{\"status\":\"writing manifest\"}");
+            if (!models.contains(name)) {
+                models.add(name);
+            }
+            writeLine(out, "{\"status\":\"success\"}");
+        }
+    }
+
+    private void tags(HttpExchange exchange) throws IOException {
+        StringJoiner entries = new StringJoiner(",", "{\"models\":[", "]}");
+        for (String model : models) {
+            entries.add("{\"name\":\"" + model + "\",\"model\":\"" + model
+                    + "\",\"size\":1,\"digest\":\"0\",\"details\":{}}");
+        }
+        respond(exchange, 200, entries.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void weather(HttpExchange exchange) throws IOException {
+        weatherRequests.incrementAndGet();
+        String city = "";
+        String query = exchange.getRequestURI().getRawQuery();
+        for (String param : query != null ? query.split("&") : new String[0]) {
+            if (param.startsWith("q=")) {
+                city = URLDecoder.decode(param.substring(2), StandardCharsets.UTF_8);
+            }
+        }
+        try {
+            Thread.sleep(weatherDelayMillis);
+        } catch (InterruptedException e) {
+            exchange.close();
+            return;
+        }
+        if (city.isEmpty() || city.equalsIgnoreCase(UNKNOWN_CITY)) {
+            respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        respond(exchange, 200, ("{\"name\":\"" + city + "\",\"weather\":[{\"main\":\"Clear\",\"description\":"
+                + "\"clear sky\"}],\"main\":{\"temp\":21.5}}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs stubs on their own, e.g. to point the UI at them: {@code StubOllamaServer [tokens] [tokensPerSecond]
+     * [servers]}. With several servers the printed {@code ollamaHosts} line sets up a host pool over all of them.
+     */
+    public static void main(String[] args) throws Exception {
+        int tokens = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int tokensPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int servers = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        List<String> hosts = new ArrayList<>();
+        for (int i = 0; i < servers; i++) {
+            StubOllamaServer stub = new StubOllamaServer(tokens, tokensPerSecond);
+            System.out.println("Stub Ollama server listening on " + stub.getHost());
+            hosts.add(stub.getHost());
+        }
+        if (servers > 1) {
+            System.out.println("ollamaHosts=" + String.join(",", hosts));
+        }
+        Thread.currentThread().join();
+    }
+}